@@ -0,0 +1,625 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.apt;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a {@code CommandRegistry} for each top-level class annotated with {@code GenerateRegistry} and lists
+ * generated registries in {@code META-INF/services}, so they are loaded by {@code ReflectionEnvironment.fromRegistries}.
+ *
+ * A generated registry creates the same commands as {@code ReflectionEnvironment.fromClass} of the annotated class,
+ * but values of annotations are read at build time, command methods are called directly and argument types are
+ * resolved through the {@code ReflectionEnvironment} at runtime. Elements that the reflective path only resolves
+ * through reflection are reported as errors.
+ */
+@SupportedAnnotationTypes(CommandRegistryProcessor.GENERATE_REGISTRY)
+public class CommandRegistryProcessor extends AbstractProcessor {
+
+    private static final String ANNOTATION = "com.github.jonathanxd.kwcommands.reflect.annotation.";
+    static final String GENERATE_REGISTRY = ANNOTATION + "GenerateRegistry";
+    private static final String CMD = ANNOTATION + "Cmd";
+    private static final String ARG = ANNOTATION + "Arg";
+    private static final String INFO = ANNOTATION + "Info";
+    private static final String CTX = ANNOTATION + "Ctx";
+    private static final String CMD_CONTAINER = ANNOTATION + "CmdContainer";
+    private static final String CMD_HANDLER = ANNOTATION + "CmdHandler";
+    private static final String DYNAMIC_ARGS = ANNOTATION + "DynamicArgs";
+    private static final String REQUIRE = ANNOTATION + "Require";
+    private static final String REQUIRES = ANNOTATION + "Requires";
+    private static final String EXCLUDE = ANNOTATION + "Exclude";
+
+    private static final String NONE_HANDLER = "com.github.jonathanxd.kwcommands.reflect.NoneHandler";
+    private static final String NONE_ARGUMENT_HANDLER = "com.github.jonathanxd.kwcommands.reflect.NoneArgumentHandler";
+    private static final String NONE_ARGUMENT_TYPE = "com.github.jonathanxd.kwcommands.reflect.NoneArgumentType";
+    private static final String DEFAULT = "com.github.jonathanxd.iutils.object.Default";
+
+    private static final String SERVICE = "META-INF/services/com.github.jonathanxd.kwcommands.reflect.CommandRegistry";
+    private static final String SUFFIX = "_CommandRegistry";
+
+    private final Set<String> registries = new LinkedHashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement generateRegistry = this.processingEnv.getElementUtils().getTypeElement(GENERATE_REGISTRY);
+
+        if (generateRegistry != null) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(generateRegistry)) {
+                if (element.getKind() != ElementKind.CLASS
+                        || element.getEnclosingElement().getKind() != ElementKind.PACKAGE) {
+                    this.error(element, "@GenerateRegistry can only be applied to top-level classes.");
+                    continue;
+                }
+
+                try {
+                    this.registries.add(new RegistryWriter((TypeElement) element).write());
+                } catch (UnsupportedElementException e) {
+                    this.error(e.element, e.getMessage());
+                } catch (IOException e) {
+                    this.error(element, "Failed to write command registry: " + e);
+                }
+            }
+        }
+
+        if (roundEnv.processingOver() && !this.registries.isEmpty()) {
+            try {
+                FileObject file = this.processingEnv.getFiler()
+                        .createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE);
+
+                try (Writer writer = file.openWriter()) {
+                    for (String registry : this.registries) {
+                        writer.write(registry);
+                        writer.write('\n');
+                    }
+                }
+            } catch (IOException e) {
+                this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Failed to write " + SERVICE + ": " + e);
+            }
+        }
+
+        return true;
+    }
+
+    private void error(Element element, String message) {
+        this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    /**
+     * Writes registry of a top-level class.
+     */
+    private final class RegistryWriter {
+        private final TypeElement root;
+        private final Elements elements = processingEnv.getElementUtils();
+        private final Types types = processingEnv.getTypeUtils();
+        private final Messager messager = processingEnv.getMessager();
+        private final Map<TypeElement, String> instances = new HashMap<>();
+        private final StringBuilder body = new StringBuilder();
+        private int variables = 0;
+
+        RegistryWriter(TypeElement root) {
+            this.root = root;
+        }
+
+        /**
+         * Writes the registry and returns its binary name.
+         */
+        String write() throws IOException {
+            this.instances(this.root);
+            this.type(this.root, "null");
+
+            PackageElement pkg = this.elements.getPackageOf(this.root);
+            String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+            String simpleName = this.root.getSimpleName() + SUFFIX;
+            String name = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+
+            StringBuilder source = new StringBuilder();
+
+            if (!packageName.isEmpty())
+                source.append("package ").append(packageName).append(";\n\n");
+
+            source.append("import com.github.jonathanxd.iutils.type.TypeInfo;\n")
+                    .append("import com.github.jonathanxd.kwcommands.argument.Argument;\n")
+                    .append("import com.github.jonathanxd.kwcommands.command.Command;\n")
+                    .append("import com.github.jonathanxd.kwcommands.command.Handler;\n")
+                    .append("import com.github.jonathanxd.kwcommands.information.Information;\n")
+                    .append("import com.github.jonathanxd.kwcommands.information.RequiredInformation;\n")
+                    .append("import com.github.jonathanxd.kwcommands.manager.InstanceProvider;\n")
+                    .append("import com.github.jonathanxd.kwcommands.reflect.CommandFactoryQueue;\n")
+                    .append("import com.github.jonathanxd.kwcommands.reflect.CommandRegistry;\n")
+                    .append("import com.github.jonathanxd.kwcommands.reflect.element.ElementParameter;\n")
+                    .append("import com.github.jonathanxd.kwcommands.reflect.env.ReflectionEnvironment;\n")
+                    .append("import com.github.jonathanxd.kwcommands.reflect.env.RegistrySupport;\n\n")
+                    .append("import java.util.ArrayList;\n")
+                    .append("import java.util.Collections;\n")
+                    .append("import java.util.LinkedHashSet;\n")
+                    .append("import java.util.List;\n")
+                    .append("import java.util.Set;\n\n")
+                    .append("/**\n * Command registry of {@link ").append(this.root.getQualifiedName())
+                    .append("}, generated by {@code ").append(CommandRegistryProcessor.class.getName())
+                    .append("}.\n */\n")
+                    .append("public final class ").append(simpleName).append(" implements CommandRegistry {\n\n")
+                    .append("    @Override\n")
+                    .append("    @SuppressWarnings(\"unchecked\")\n")
+                    .append("    public void queueCommands(final ReflectionEnvironment environment,\n")
+                    .append("                              final InstanceProvider instanceProvider,\n")
+                    .append("                              final Object owner,\n")
+                    .append("                              final CommandFactoryQueue queue) {\n")
+                    .append(this.body)
+                    .append("    }\n")
+                    .append("}\n");
+
+            try (Writer writer = processingEnv.getFiler().createSourceFile(name, this.root).openWriter()) {
+                writer.write(source.toString());
+            }
+
+            return name;
+        }
+
+        /**
+         * Gets instances of [type] and of its command classes, in the same order as {@code ReflectionEnvironment}.
+         */
+        private void instances(TypeElement type) {
+            String variable = this.variable("instance");
+
+            this.line("final Object " + variable + " = RegistrySupport.instance(instanceProvider, "
+                    + this.types.erasure(type.asType()) + ".class);");
+            this.instances.put(type, variable);
+
+            for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+                if (this.annotation(nested, CMD) == null)
+                    continue;
+
+                if (!nested.getModifiers().contains(Modifier.STATIC))
+                    throw new UnsupportedElementException(nested, "Command classes must be static nested classes.");
+
+                this.instances(nested);
+            }
+        }
+
+        private void type(TypeElement type, String superCommand) {
+            AnnotationMirror cmd = this.annotation(type, CMD);
+            String command = superCommand;
+
+            if (cmd != null) {
+                this.checkClass(type, cmd);
+
+                Map<String, AnnotationValue> values = this.values(cmd);
+                String name = this.string(values, "name");
+
+                if (name.isEmpty()) {
+                    name = type.getSimpleName().toString();
+
+                    if (!name.isEmpty() && !Character.isLowerCase(name.charAt(0)))
+                        name = name.substring(0, 1).toLowerCase(Locale.ROOT) + name.substring(1);
+                }
+
+                String parents = this.strings(values, "parents");
+                command = this.variable("command");
+
+                this.line("final Command " + command + " = RegistrySupport.command(environment, owner, " + parents
+                        + ", " + superCommand + ", " + this.commandValues(values, name)
+                        + ", RegistrySupport.emptyHandler(), Collections.<Argument<?>>emptyList(),"
+                        + " Collections.<RequiredInformation>emptySet());");
+                this.line("queue.queueCommand(" + literal(type.getQualifiedName().toString()) + ", " + literal(name)
+                        + ", created -> " + command + ", RegistrySupport.checker(environment, owner, " + parents
+                        + "), () -> " + literal(this.path(values, name)) + ");");
+            }
+
+            for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+                AnnotationMirror methodCmd = this.annotation(method, CMD);
+
+                if (methodCmd != null)
+                    this.method(type, method, methodCmd, command);
+            }
+
+            for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+                if (this.annotation(nested, CMD) != null)
+                    this.type(nested, command);
+            }
+        }
+
+        private void checkClass(TypeElement type, AnnotationMirror cmd) {
+            Map<String, AnnotationValue> values = this.values(cmd);
+
+            if (!this.className(values, "handler").equals(NONE_HANDLER))
+                throw new UnsupportedElementException(type, "Command handler classes are not supported by registries.");
+
+            this.checkCommand(type, values);
+
+            for (Element member : this.elements.getAllMembers(type)) {
+                if (member.getKind() == ElementKind.METHOD
+                        && member.getModifiers().contains(Modifier.PUBLIC)
+                        && this.annotation(member, CMD_HANDLER) != null)
+                    throw new UnsupportedElementException(member, "@CmdHandler is not supported by registries.");
+            }
+
+            for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+                if (this.annotation(field, EXCLUDE) == null)
+                    throw new UnsupportedElementException(field, "Fields of command classes are arguments of the"
+                            + " command, which are not supported by registries. Annotate the field with @Exclude.");
+            }
+        }
+
+        private void checkCommand(Element element, Map<String, AnnotationValue> values) {
+            if (!this.list(values, "requirements").isEmpty()
+                    || this.annotation(element, REQUIRE) != null
+                    || this.annotation(element, REQUIRES) != null)
+                throw new UnsupportedElementException(element, "Requirements are not supported by registries.");
+
+            if (this.annotation(element, DYNAMIC_ARGS) != null)
+                throw new UnsupportedElementException(element, "@DynamicArgs is not supported by registries.");
+        }
+
+        private void method(TypeElement type, ExecutableElement method, AnnotationMirror cmd, String superCommand) {
+            Map<String, AnnotationValue> values = this.values(cmd);
+
+            if (method.getModifiers().contains(Modifier.PRIVATE))
+                throw new UnsupportedElementException(method, "Command methods of registries cannot be private.");
+
+            if (!this.className(values, "handler").equals(NONE_HANDLER))
+                throw new UnsupportedElementException(method, "Command handler classes are not supported by registries.");
+
+            this.checkCommand(method, values);
+
+            boolean isStatic = method.getModifiers().contains(Modifier.STATIC);
+            String instance = this.instances.get(type);
+            String name = this.string(values, "name");
+
+            if (name.isEmpty())
+                name = method.getSimpleName().toString();
+
+            String arguments = this.variable("arguments");
+            String requiredInfo = this.variable("requiredInfo");
+            String parameters = this.variable("parameters");
+            List<String> invocationArguments = new ArrayList<>();
+
+            this.line("if (" + instance + (isStatic ? " == null" : " != null") + ") {");
+            this.line("    final List<Argument<?>> " + arguments + " = new ArrayList<>();");
+            this.line("    final Set<RequiredInformation> " + requiredInfo + " = new LinkedHashSet<>();");
+            this.line("    final List<ElementParameter<?>> " + parameters + " = new ArrayList<>();");
+
+            List<? extends VariableElement> methodParameters = method.getParameters();
+
+            for (int index = 0; index < methodParameters.size(); ++index) {
+                VariableElement parameter = methodParameters.get(index);
+
+                invocationArguments.add("(" + this.castType(parameter) + ") args[" + index + "]");
+
+                if (this.annotation(parameter, CMD_CONTAINER) != null) {
+                    this.line("    " + parameters + ".add(ElementParameter.CmdContainerParameter.INSTANCE);");
+                } else if (this.annotation(parameter, CTX) != null) {
+                    this.line("    " + parameters + ".add(ElementParameter.CtxParameter.INSTANCE);");
+                } else if (this.annotation(parameter, INFO) != null) {
+                    this.information(parameter, parameters, requiredInfo);
+                } else if (this.annotation(parameter, ARG) != null) {
+                    this.argument(parameter, parameters, arguments);
+                } else {
+                    throw new UnsupportedElementException(parameter, "Missing annotation for parameter.");
+                }
+            }
+
+            String owner = this.types.erasure(type.asType()).toString();
+            String receiver = isStatic ? owner : "((" + owner + ") " + instance + ")";
+            String invocation = receiver + "." + method.getSimpleName() + "(" + String.join(", ", invocationArguments) + ")";
+            String handler = this.variable("handler");
+            boolean isVoid = method.getReturnType().getKind() == TypeKind.VOID;
+
+            this.line("    final Handler " + handler + " = RegistrySupport.handler(environment, " + owner + ".class, "
+                    + parameters + ", args -> {");
+
+            if (method.getThrownTypes().isEmpty()) {
+                this.invocation("        ", invocation, isVoid);
+            } else {
+                this.line("        try {");
+                this.invocation("            ", invocation, isVoid);
+                this.line("        } catch (RuntimeException | Error e) {");
+                this.line("            throw e;");
+                this.line("        } catch (Throwable t) {");
+                this.line("            throw new java.lang.reflect.UndeclaredThrowableException(t);");
+                this.line("        }");
+            }
+
+            this.line("    });");
+
+            String parents = this.strings(values, "parents");
+
+            this.line("    queue.queueCommand(" + literal(owner + "#" + method.getSimpleName()) + ", " + literal(name)
+                    + ", created -> RegistrySupport.methodCommand(environment, owner, " + parents + ", created, "
+                    + superCommand + ", " + this.commandValues(values, name) + ", " + handler + ", " + arguments
+                    + ", " + requiredInfo + "), RegistrySupport.checker(environment, owner, " + parents + "), () -> "
+                    + literal(this.path(values, name)) + ");");
+            this.line("}");
+        }
+
+        private void invocation(String indent, String invocation, boolean isVoid) {
+            if (isVoid) {
+                this.line(indent + invocation + ";");
+                this.line(indent + "return null;");
+            } else {
+                this.line(indent + "return " + invocation + ";");
+            }
+        }
+
+        private void argument(VariableElement parameter, String parameters, String arguments) {
+            Map<String, AnnotationValue> values = this.values(this.annotation(parameter, ARG));
+
+            if (!this.className(values, "argumentType").equals(NONE_ARGUMENT_TYPE))
+                throw new UnsupportedElementException(parameter, "Custom argument types are not supported by registries.");
+
+            if (!this.className(values, "handler").equals(NONE_ARGUMENT_HANDLER))
+                throw new UnsupportedElementException(parameter, "Argument handlers are not supported by registries.");
+
+            if (!this.list(values, "requirements").isEmpty()
+                    || this.annotation(parameter, REQUIRE) != null
+                    || this.annotation(parameter, REQUIRES) != null)
+                throw new UnsupportedElementException(parameter, "Requirements are not supported by registries.");
+
+            String name = this.string(values, "value");
+
+            if (name.isEmpty()) {
+                name = parameter.getSimpleName().toString();
+                this.messager.printMessage(Diagnostic.Kind.WARNING, "Argument name is inferred from source,"
+                        + " reflective environment only infers the same name if classes are compiled with -parameters.",
+                        parameter);
+            }
+
+            String type = this.variable("type");
+            String argument = this.variable("argument");
+
+            this.line("    final TypeInfo<?> " + type + " = RegistrySupport.typeInfo(" + this.typeExpression(parameter,
+                    parameter.asType()) + ");");
+            this.line("    final Argument<?> " + argument + " = RegistrySupport.argument(environment, "
+                    + literal(name) + ", "
+                    + literal(this.string(values, "nameComponent")) + ", "
+                    + this.strings(values, "alias") + ", "
+                    + literal(this.string(values, "aliasComponent")) + ", "
+                    + literal(this.string(values, "description")) + ", "
+                    + values.get("optional").getValue() + ", "
+                    + type + ");");
+            this.line("    " + arguments + ".add(" + argument + ");");
+            this.line("    " + parameters + ".add(RegistrySupport.argumentParameter(" + argument + ", " + type + "));");
+        }
+
+        private void information(VariableElement parameter, String parameters, String requiredInfo) {
+            Map<String, AnnotationValue> values = this.values(this.annotation(parameter, INFO));
+            Map<String, AnnotationValue> id = this.values((AnnotationMirror) values.get("value").getValue());
+            boolean isOptional = (Boolean) values.get("isOptional").getValue();
+            String idClass = this.className(id, "value");
+
+            String type = this.variable("type");
+            String idVariable = this.variable("id");
+
+            this.line("    final TypeInfo<?> " + type + " = RegistrySupport.typeInfo(" + this.typeExpression(parameter,
+                    parameter.asType()) + ");");
+            this.line("    final Information.Id<?> " + idVariable + " = RegistrySupport.informationId(" + type + ", "
+                    + (idClass.equals(DEFAULT) ? "null" : idClass + ".class") + ", "
+                    + literal(this.string(id, "typeLiter")) + ", "
+                    + this.strings(id, "tags") + ");");
+
+            if (!isOptional)
+                this.line("    " + requiredInfo + ".add(new RequiredInformation(" + idVariable + "));");
+
+            this.line("    " + parameters + ".add(RegistrySupport.informationParameter(" + idVariable + ", "
+                    + isOptional + ", " + type + "));");
+        }
+
+        /**
+         * Values of command shared by class and method commands: order, name, name component, description,
+         * alias, alias component and order independence.
+         */
+        private String commandValues(Map<String, AnnotationValue> values, String name) {
+            return values.get("order").getValue() + ", "
+                    + literal(name) + ", "
+                    + literal(this.string(values, "nameComponent")) + ", "
+                    + literal(this.string(values, "description")) + ", "
+                    + this.strings(values, "alias") + ", "
+                    + literal(this.string(values, "aliasComponent")) + ", "
+                    + values.get("orderIndependent").getValue();
+        }
+
+        private String path(Map<String, AnnotationValue> values, String name) {
+            List<String> path = new ArrayList<>();
+
+            for (AnnotationValue parent : this.list(values, "parents"))
+                path.add((String) parent.getValue());
+
+            path.add(name);
+
+            return String.join(" ", path);
+        }
+
+        /**
+         * Java expression of {@code java.lang.reflect.Type} of [type].
+         */
+        private String typeExpression(Element element, TypeMirror type) {
+            switch (type.getKind()) {
+                case BOOLEAN:
+                case BYTE:
+                case SHORT:
+                case INT:
+                case LONG:
+                case CHAR:
+                case FLOAT:
+                case DOUBLE:
+                    return type + ".class";
+                case ARRAY: {
+                    TypeMirror component = ((ArrayType) type).getComponentType();
+
+                    if (component.getKind() == TypeKind.DECLARED && !((DeclaredType) component).getTypeArguments().isEmpty())
+                        throw new UnsupportedElementException(element, "Generic array types are not supported by registries.");
+
+                    this.typeExpression(element, component);
+                    return this.types.erasure(type) + ".class";
+                }
+                case DECLARED: {
+                    List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+                    String raw = this.types.erasure(type) + ".class";
+
+                    if (arguments.isEmpty())
+                        return raw;
+
+                    List<String> expressions = new ArrayList<>();
+
+                    for (TypeMirror argument : arguments)
+                        expressions.add(this.typeExpression(element, argument));
+
+                    return "RegistrySupport.type(" + raw + ", " + String.join(", ", expressions) + ")";
+                }
+                default:
+                    throw new UnsupportedElementException(element, "Type " + type + " is not supported by registries.");
+            }
+        }
+
+        private String castType(VariableElement parameter) {
+            TypeMirror type = parameter.asType();
+
+            return type.getKind().isPrimitive() ? type.toString() : this.types.erasure(type).toString();
+        }
+
+        private AnnotationMirror annotation(Element element, String name) {
+            for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+                TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+
+                if (annotationType.getQualifiedName().contentEquals(name))
+                    return mirror;
+            }
+
+            return null;
+        }
+
+        private Map<String, AnnotationValue> values(AnnotationMirror mirror) {
+            Map<String, AnnotationValue> values = new HashMap<>();
+
+            this.elements.getElementValuesWithDefaults(mirror).forEach((key, value) ->
+                    values.put(key.getSimpleName().toString(), value));
+
+            return values;
+        }
+
+        private String string(Map<String, AnnotationValue> values, String name) {
+            return (String) values.get(name).getValue();
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<? extends AnnotationValue> list(Map<String, AnnotationValue> values, String name) {
+            return (List<? extends AnnotationValue>) values.get(name).getValue();
+        }
+
+        private String className(Map<String, AnnotationValue> values, String name) {
+            return this.types.erasure((TypeMirror) values.get(name).getValue()).toString();
+        }
+
+        /**
+         * Java expression of a {@code String[]} with values of array [name].
+         */
+        private String strings(Map<String, AnnotationValue> values, String name) {
+            List<String> literals = new ArrayList<>();
+
+            for (AnnotationValue value : this.list(values, name))
+                literals.add(literal((String) value.getValue()));
+
+            return "new String[]{" + String.join(", ", literals) + "}";
+        }
+
+        private String variable(String name) {
+            return name + this.variables++;
+        }
+
+        private void line(String line) {
+            this.body.append("        ").append(line).append('\n');
+        }
+    }
+
+    private static String literal(String value) {
+        StringBuilder builder = new StringBuilder("\"");
+
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"': builder.append("\\\""); break;
+                case '\\': builder.append("\\\\"); break;
+                case '\n': builder.append("\\n"); break;
+                case '\r': builder.append("\\r"); break;
+                case '\t': builder.append("\\t"); break;
+                default:
+                    if (c < 0x20 || c > 0x7E)
+                        builder.append(String.format("\\u%04x", (int) c));
+                    else
+                        builder.append(c);
+            }
+        }
+
+        return builder.append('"').toString();
+    }
+
+    private static final class UnsupportedElementException extends RuntimeException {
+        private final Element element;
+
+        UnsupportedElementException(Element element, String message) {
+            super(message);
+            this.element = element;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.parser;
+
+import com.github.jonathanxd.kwcommands.util.IndexedSourcedCharIter;
+import com.github.jonathanxd.kwcommands.util.InputTokenizer;
+import com.github.jonathanxd.kwcommands.util.SourcedCharIterator;
+import com.github.jonathanxd.kwcommands.util.StringParseKt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compares allocations and time of {@link InputTokenizer} and {@link StringParseKt#parseSingleInput}, allocation
+ * rate is reported by the gc profiler ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 10)
+@Fork(5)
+public class TokenizerBenchmark {
+
+    private static final List<Character> SEPARATORS = Collections.singletonList(' ');
+    private static final List<Character> OPEN_CLOSE = Arrays.asList('"', '\'');
+    private static final List<Character> MAP_DEFINE = Arrays.asList(':', '=');
+    private static final List<Character> LIST_MAP_SEPARATORS = Collections.singletonList(',');
+
+    private SourcedCharIterator iter;
+
+    @Setup
+    public void setup() {
+        this.iter = new IndexedSourcedCharIter("register --name KWCommands --version 1.6 --enabled true & list 10");
+    }
+
+    @Benchmark
+    public void tokenizerBench(Blackhole blackhole) {
+        this.iter.restore(SourcedCharIterator.Companion.getStateZero());
+
+        while (this.iter.hasNext()) {
+            blackhole.consume(InputTokenizer.DEFAULT.tokenize(this.iter, true));
+        }
+    }
+
+    @Benchmark
+    public void parseSingleInputBench(Blackhole blackhole) {
+        this.iter.restore(SourcedCharIterator.Companion.getStateZero());
+
+        while (this.iter.hasNext()) {
+            blackhole.consume(StringParseKt.parseSingleInput(this.iter, '\\',
+                    SEPARATORS, OPEN_CLOSE, MAP_DEFINE, LIST_MAP_SEPARATORS, true));
+        }
+    }
+
+}
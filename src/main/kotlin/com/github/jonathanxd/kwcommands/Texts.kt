@@ -133,6 +133,12 @@ interface TextsStub {
     @Section("error", "missing_information")
     fun getMissingInformationText(@Named(RESULT_STRING) resultString: TextComponent): TextComponent
 
+    @Section("error", "concurrency_limit")
+    fun getConcurrencyLimitText(
+        @Named(RESULT_STRING) resultString: TextComponent,
+        @Named(MAX_DISPATCHES) maxDispatches: String
+    ): TextComponent
+
     @Section("error", "information_identification")
     fun getInformationIdentificationText(): TextComponent
 
@@ -249,4 +255,5 @@ private const val SUBJECT_TYPE = "subject_type"
 private const val SUBJECT_TAGS = "subject_tags"
 private const val TESTER = "tester"
 private const val INFORMATION_ID = "information_id"
-private const val INFORMATION_TYPE = "information_type"
\ No newline at end of file
+private const val INFORMATION_TYPE = "information_type"
+private const val MAX_DISPATCHES = "max_dispatches"
\ No newline at end of file
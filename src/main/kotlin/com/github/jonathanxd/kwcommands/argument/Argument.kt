@@ -33,6 +33,7 @@ import com.github.jonathanxd.kwcommands.NamedAndAliased
 import com.github.jonathanxd.kwcommands.information.RequiredInformation
 import com.github.jonathanxd.kwcommands.parser.Input
 import com.github.jonathanxd.kwcommands.requirement.Requirement
+import com.github.jonathanxd.kwcommands.requirement.RequirementProgram
 
 /**
  * A command argument.
@@ -85,6 +86,13 @@ data class Argument<out T>(
         handler
     )
 
+    /**
+     * [requirements] compiled into a [RequirementProgram].
+     */
+    val requirementProgram: RequirementProgram by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        RequirementProgram.compile(this.requirements)
+    }
+
     fun parse(input: Input) = this.argumentType.parse(input)
 
     companion object {
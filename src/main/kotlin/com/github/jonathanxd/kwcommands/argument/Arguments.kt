@@ -30,6 +30,9 @@ package com.github.jonathanxd.kwcommands.argument
 import com.github.jonathanxd.iutils.kt.get
 import com.github.jonathanxd.iutils.text.localizer.Localizer
 import com.github.jonathanxd.iutils.text.localizer.TextLocalizer
+import com.github.jonathanxd.kwcommands.parser.CommandParsePlan
+import com.github.jonathanxd.kwcommands.util.NameIndex
+import com.github.jonathanxd.kwcommands.util.NameIndexCache
 import com.github.jonathanxd.kwcommands.util.localizeMulti
 
 interface Arguments {
@@ -70,6 +73,12 @@ interface Arguments {
      */
     fun getRemainingArguments(current: List<ArgumentContainer<*>>): List<Argument<*>>
 
+    /**
+     * Gets index of names, aliases and localized names (if [localizer] is provided) of [all] arguments.
+     */
+    fun getNameIndex(localizer: Localizer?): NameIndex<Argument<*>> =
+        NameIndex.create(this.all, localizer)
+
 }
 
 class StaticListArguments(val argumentList: List<Argument<*>>) : Arguments {
@@ -77,6 +86,15 @@ class StaticListArguments(val argumentList: List<Argument<*>>) : Arguments {
     constructor() : this(emptyList())
     constructor(argument: Argument<*>) : this(listOf(argument))
 
+    private val nameIndex = NameIndexCache { NameIndex.create(this.argumentList, it) }
+
+    /**
+     * Parse plan of these arguments, lazily created by [CommandParsePlan.of]. Concurrent parsers
+     * may create more than one plan, only one of them is kept.
+     */
+    @Volatile
+    internal var parsePlan: CommandParsePlan? = null
+
     override val all: List<Argument<*>>
         get() = this.argumentList
 
@@ -84,6 +102,9 @@ class StaticListArguments(val argumentList: List<Argument<*>>) : Arguments {
     override fun getRemainingArguments(current: List<ArgumentContainer<*>>): List<Argument<*>> =
         if (current.isEmpty()) this.getRemainingArguments()
         else this.argumentList.filter { curr -> current.none { it.argument == curr } }
+
+    override fun getNameIndex(localizer: Localizer?): NameIndex<Argument<*>> =
+        this.nameIndex[localizer]
 }
 
 class StaticListArgumentsBuilder {
@@ -33,7 +33,9 @@ import com.github.jonathanxd.kwcommands.NamedAndAliased
 import com.github.jonathanxd.kwcommands.argument.Arguments
 import com.github.jonathanxd.kwcommands.information.RequiredInformation
 import com.github.jonathanxd.kwcommands.requirement.Requirement
+import com.github.jonathanxd.kwcommands.requirement.RequirementProgram
 import java.util.*
+import java.util.concurrent.atomic.AtomicLong
 
 /**
  * Command definition.
@@ -55,8 +57,9 @@ import java.util.*
  * @property requirements Command requirements.
  * @property requiredInfo Identifications of required information for this command work.
  * @property alias Aliases to this command.
+ * @property metadata Additional data of this command, used by extensions (see [CommandMetadata]).
  */
-data class Command(
+data class Command @JvmOverloads constructor(
     val parent: Command?,
     val order: Int,
     override val name: String,
@@ -67,7 +70,8 @@ data class Command(
     val handler: Handler?,
     val arguments: Arguments,
     val requirements: List<Requirement<*, *>>,
-    val requiredInfo: Set<RequiredInformation>
+    val requiredInfo: Set<RequiredInformation>,
+    val metadata: Map<String, Any> = emptyMap()
 ) : Comparable<Command>, NamedAndAliased {
 
     constructor(
@@ -95,10 +99,51 @@ data class Command(
     )
 
     /**
-     * Sub commands
+     * Whether this command is [order independent][CommandMetadata.ORDER_INDEPENDENT].
      */
-    private val subCommands_ = mutableSetOf<Command>()
-    val subCommands: Set<Command> = Collections.unmodifiableSet(this.subCommands_)
+    val isOrderIndependent: Boolean
+        get() = this.metadata[CommandMetadata.ORDER_INDEPENDENT] == true
+
+    /**
+     * [requirements] compiled into a [RequirementProgram].
+     */
+    val requirementProgram: RequirementProgram by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        RequirementProgram.compile(this.requirements)
+    }
+
+    /**
+     * Sub commands.
+     *
+     * Sub-command set is copied on write, so reading it never sees a partially modified set and
+     * never needs to lock.
+     */
+    @Volatile
+    private var subCommands_: Set<Command> = emptySet()
+    val subCommands: Set<Command>
+        get() = this.subCommands_
+
+    /**
+     * Sub commands indexed by [name]. Copied on write together with [subCommands].
+     */
+    @Volatile
+    private var subCommandsByName: Map<String, Command> = emptyMap()
+
+    /**
+     * Lock of sub-command writes.
+     */
+    private val subCommandsLock = Any()
+
+    /**
+     * Counts modifications made to sub-command lists of commands of this command tree, shared by all commands
+     * created with a [parent] in the tree. Indexes uses this to know when a command tree must be indexed again.
+     */
+    private val treeModifications: AtomicLong = this.parent?.treeModifications ?: AtomicLong()
+
+    /**
+     * Current value of the sub-command modification counter of this command tree.
+     */
+    internal val treeStamp: Long
+        get() = this.treeModifications.get()
 
     /**
      * Super command. The super command is the highest [parent] command in command hierarchy.
@@ -127,34 +172,57 @@ data class Command(
     /**
      * Adds a copy of [command] to sub-command list.
      */
-    fun addSubCommand(command: Command): Boolean {
-        return this.subCommands_.add(command.copy(parent = this))
-    }
+    fun addSubCommand(command: Command): Boolean =
+        this.addSubCommand0(command.copy(parent = this))
 
     /**
      * Adds a copy of [commands] to sub-command list.
      */
-    fun addSubCommands(commands: Iterable<Command>): Boolean {
-        return this.subCommands_.addAll(commands)
+    fun addSubCommands(commands: Iterable<Command>): Boolean =
+        commands.map { this.addSubCommand0(it) }.any { it }
+
+    private fun addSubCommand0(command: Command): Boolean = synchronized(this.subCommandsLock) {
+        if (command in this.subCommands_)
+            return false
+
+        val byName = LinkedHashMap(this.subCommandsByName)
+        byName.putIfAbsent(command.name, command)
+
+        this.subCommands_ = Collections.unmodifiableSet(LinkedHashSet(this.subCommands_).also { it.add(command) })
+        this.subCommandsByName = Collections.unmodifiableMap(byName)
+        this.treeModifications.incrementAndGet()
+        return true
     }
 
     /**
      * Remove all commands with same name as [command] from sub-command list.
      */
     fun removeSubCommand(command: Command): Boolean =
-        this.subCommands_.removeAll { it.name == command.name }
+        this.removeSubCommand(command.name)
 
     /**
      * Remove all commands with name [subCommandName].
      */
-    fun removeSubCommand(subCommandName: String): Boolean =
-        this.subCommands_.removeAll { it.name == subCommandName }
+    fun removeSubCommand(subCommandName: String): Boolean = synchronized(this.subCommandsLock) {
+        val subCommands = LinkedHashSet(this.subCommands_)
+
+        if (!subCommands.removeAll { it.name == subCommandName })
+            return false
+
+        val byName = LinkedHashMap(this.subCommandsByName)
+        byName.remove(subCommandName)
+
+        this.subCommands_ = Collections.unmodifiableSet(subCommands)
+        this.subCommandsByName = Collections.unmodifiableMap(byName)
+        this.treeModifications.incrementAndGet()
+        return true
+    }
 
     /**
      * Gets the sub-command with specified [name]. This does not compare [nameComponent] because
      * it cannot be resolved from this context.
      */
-    fun getSubCommand(name: String) = this.subCommands_.find { it.name.compareTo(name) == 0 }
+    fun getSubCommand(name: String): Command? = this.subCommandsByName[name]
 
     override fun hashCode(): Int {
         var result = 1
@@ -180,6 +248,12 @@ data class Command(
     }
 
     companion object {
+        /**
+         * Sum of [tree stamps][treeStamp] of [commands], changes when sub-commands of any of the command trees change.
+         */
+        internal fun treeStamp(commands: Iterable<Command>): Long =
+            commands.fold(0L) { stamp, command -> stamp + command.treeStamp }
+
         @JvmStatic
         fun builder() = CommandBuilder()
     }
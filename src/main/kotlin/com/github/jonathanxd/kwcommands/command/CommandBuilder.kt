@@ -52,6 +52,7 @@ class CommandBuilder {
     private val requiredInfo = mutableSetOf<RequiredInformation>()
     private val alias = mutableListOf<String>()
     private var aliasComponent: TextComponent? = null
+    private val metadata = mutableMapOf<String, Any>()
 
     /**
      * Sets [Command.parent].
@@ -187,6 +188,23 @@ class CommandBuilder {
         return this
     }
 
+    /**
+     * Sets [Command.metadata] entry with [key] to [value].
+     */
+    fun metadata(key: String, value: Any): CommandBuilder {
+        this.metadata[key] = value
+        return this
+    }
+
+    /**
+     * Sets whether the command is [order independent][Command.isOrderIndependent].
+     */
+    fun orderIndependent(orderIndependent: Boolean): CommandBuilder {
+        if (orderIndependent) this.metadata[CommandMetadata.ORDER_INDEPENDENT] = true
+        else this.metadata.remove(CommandMetadata.ORDER_INDEPENDENT)
+        return this
+    }
+
     /**
      * Adds [Command.alias].
      */
@@ -230,7 +248,8 @@ class CommandBuilder {
         requirements = this.requirements.toList(),
         requiredInfo = this.requiredInfo.toSet(),
         alias = this.alias.toList(),
-        aliasComponent = this.aliasComponent
+        aliasComponent = this.aliasComponent,
+        metadata = this.metadata.toMap()
     )
 
 
@@ -0,0 +1,74 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.command
+
+/**
+ * Keys of [Command.metadata] understood by KWCommands.
+ */
+object CommandMetadata {
+
+    /**
+     * Maximum number of dispatches of the command that may run at the same time, value must be an [Int].
+     *
+     * [Asynchronous dispatches][com.github.jonathanxd.kwcommands.dispatch.CommandDispatcher.dispatchAsync] that
+     * exceeds the limit waits until a running dispatch of the command finishes. Synchronous dispatches never wait,
+     * the command is not handled and a [ConcurrencyLimitResult][com.github.jonathanxd.kwcommands.processor.ConcurrencyLimitResult]
+     * is reported instead.
+     *
+     * The limit applies to all commands with the same [full name][Command.fullname] dispatched by the same
+     * dispatcher, including copies of the command.
+     *
+     * @see com.github.jonathanxd.kwcommands.dispatch.CommandDispatcherImpl
+     */
+    const val MAX_CONCURRENT_DISPATCHES = "kwcommands.maxConcurrentDispatches"
+
+    /**
+     * Whether the command does not depend on the order of dispatch of other commands, value must be a [Boolean].
+     * Consecutive order independent commands of a command chain are dispatched concurrently, unless a registered
+     * [interceptor][com.github.jonathanxd.kwcommands.interceptor.CommandInterceptor.isThreadSafe] is not thread-safe.
+     *
+     * Handlers, requirement testers and information providers used by order independent commands may be called by
+     * many threads at the same time, and must be thread-safe.
+     *
+     * @see Command.isOrderIndependent
+     * @see com.github.jonathanxd.kwcommands.dispatch.DispatcherOptions.INDEPENDENT_COMMANDS_EXECUTOR
+     */
+    const val ORDER_INDEPENDENT = "kwcommands.orderIndependent"
+
+    /**
+     * Whether parse results containing the command must not be cached, value must be a [Boolean].
+     * Commands with arguments that may parse the same input to different values (for example, arguments
+     * that depends on time or on the state of the application) must set this to `true`.
+     *
+     * Commands with [arguments][Command.arguments] that are not
+     * [static][com.github.jonathanxd.kwcommands.argument.StaticListArguments] are never cached.
+     *
+     * @see com.github.jonathanxd.kwcommands.parser.ParseCache
+     */
+    const val NO_PARSE_CACHE = "kwcommands.noParseCache"
+}
@@ -93,6 +93,15 @@ interface Completion {
 }
 
 interface Completions {
+    /**
+     * Prefix that completions will be filtered by, or `null` if completions are not filtered.
+     *
+     * Auto completers may use this to only provide completions starting with [prefix], but if
+     * none of the completions starts with [prefix], all of them should be provided.
+     */
+    val prefix: String?
+        get() = null
+
     /**
      * Adds a completion
      */
@@ -35,6 +35,7 @@ import com.github.jonathanxd.kwcommands.command.Command
 import com.github.jonathanxd.kwcommands.command.CommandContainer
 import com.github.jonathanxd.kwcommands.fail.*
 import com.github.jonathanxd.kwcommands.information.InformationProviders
+import com.github.jonathanxd.kwcommands.manager.CommandManager
 import com.github.jonathanxd.kwcommands.parser.*
 import com.github.jonathanxd.kwcommands.util.*
 import java.util.*
@@ -68,11 +69,14 @@ class CompletionImpl(override val parser: CommandParser) : Completion {
     ): List<String> {
         val suggestions = mutableListOf<String>()
         val iter = IndexedSourcedCharIter(input)
+        // Parses and completes against the same commands, even if commands are replaced meanwhile.
+        val parser = this.parser.withCommandManager(this.parser.commandManager.snapshot())
+        val manager = parser.commandManager
 
         val parse = parser.parseWithOwnerFunction(iter, ownerProvider)
 
         if (parse.isRight) {
-            completeSuccess(parse.right, iter, suggestions, informationProviders, localizer)
+            completeSuccess(parse.right, iter, suggestions, manager, informationProviders, localizer)
         } else {
             complete(parse.left, suggestions, informationProviders, localizer)
         }
@@ -84,6 +88,7 @@ class CompletionImpl(override val parser: CommandParser) : Completion {
         commandContainers: List<CommandContainer>,
         iter: SourcedCharIterator,
         suggestion: MutableList<String>,
+        manager: CommandManager,
         informationProviders: InformationProviders,
         localizer: Localizer?
     ) {
@@ -94,7 +99,7 @@ class CompletionImpl(override val parser: CommandParser) : Completion {
             last?.command,
             commandContainers,
             completions,
-            this.parser.commandManager,
+            manager,
             informationProviders,
             localizer
         )
@@ -225,17 +230,19 @@ class CompletionImpl(override val parser: CommandParser) : Completion {
         when (parseFail) {
             is CommandNotFoundFail -> {
                 val cmd = parseFail.commandStr.getString()
+                val completions2 = ListCompletionsImpl(cmd)
 
                 this.autoCompleters.completeCommand(
                     null,
                     parseFail.parsedCommands,
-                    completions,
+                    completions2,
                     parseFail.manager,
                     informationProviders,
                     localizer
                 )
 
-                completions.retainIfAnyMatch { it.startsWith(cmd) }
+                completions2.retainIfAnyMatch { it.startsWith(cmd) }
+                completions.merge(completions2)
             }
             is ArgumentsMissingFail -> {
                 val command = parseFail.command
@@ -273,18 +280,20 @@ class CompletionImpl(override val parser: CommandParser) : Completion {
                 val command = parseFail.command
                 val parsedArgs = parseFail.parsedArgs
                 val input: Input = parseFail.input
+                val completions2 = ListCompletionsImpl(input.content)
 
                 this.autoCompleters.completeArgumentName(
                     command,
                     parsedArgs,
-                    completions,
+                    completions2,
                     informationProviders,
                     localizer,
                     false
                 )
 
-                completions.retainIfAnyMatch { it.startsWith(input.content) }
-                completions.map { "--$it" }
+                completions2.retainIfAnyMatch { it.startsWith(input.content) }
+                completions2.map { "--$it" }
+                completions.merge(completions2)
             }
             is InvalidInputForArgumentFail -> {
                 val command = parseFail.command
@@ -592,7 +601,7 @@ class CompletionImpl(override val parser: CommandParser) : Completion {
     }
 
 
-    private class ListCompletionsImpl : Completions {
+    private class ListCompletionsImpl(override val prefix: String? = null) : Completions {
         val list = mutableListOf<String>()
 
         override fun add(completion: String) {
@@ -27,9 +27,7 @@
  */
 package com.github.jonathanxd.kwcommands.completion
 
-import com.github.jonathanxd.iutils.kt.get
 import com.github.jonathanxd.iutils.text.localizer.Localizer
-import com.github.jonathanxd.kwcommands.NamedAndAliased
 import com.github.jonathanxd.kwcommands.argument.Argument
 import com.github.jonathanxd.kwcommands.argument.ArgumentContainer
 import com.github.jonathanxd.kwcommands.argument.ArgumentType
@@ -38,6 +36,7 @@ import com.github.jonathanxd.kwcommands.command.CommandContainer
 import com.github.jonathanxd.kwcommands.information.InformationProviders
 import com.github.jonathanxd.kwcommands.manager.CommandManager
 import com.github.jonathanxd.kwcommands.parser.*
+import com.github.jonathanxd.kwcommands.util.completionNames
 
 class DefaultAutoCompleter : AutoCompleter {
 
@@ -49,21 +48,42 @@ class DefaultAutoCompleter : AutoCompleter {
         informationProviders: InformationProviders,
         localizer: Localizer?
     ) {
-        val commands = mutableListOf<Command>()
+        val subCommands = mutableListOf<Command>()
         val last = commandContainers.lastOrNull()
         val root = if (command?.parent == null) command else command.superCommand
+        val fromManager = last?.command == command
 
         command?.subCommands?.let {
-            commands += it
+            subCommands += it
         }
 
-        commands += if (last?.command == command)
-            commandManager.registeredCommands.filter { it != root }
-        else
-            last?.command?.subCommands.orEmpty()
+        if (!fromManager)
+            subCommands += last?.command?.subCommands.orEmpty()
 
+        val prefix = completions.prefix
 
-        completions.addAll(commands.flatMap { it.completions(localizer) })
+        if (prefix != null) {
+            val matches = subCommands.flatMap { it.completionNames(localizer) }
+                .filter { it.startsWith(prefix) }
+                .toMutableList()
+
+            if (fromManager)
+                commandManager.getNameIndex(localizer).withPrefix(prefix)
+                    .filter { it.value != root }
+                    .mapTo(matches) { it.name }
+
+            if (matches.isNotEmpty()) {
+                completions.addAll(matches)
+                return
+            }
+        }
+
+        completions.addAll(subCommands.flatMap { it.completionNames(localizer) })
+
+        if (fromManager)
+            completions.addAll(commandManager.getNameIndex(localizer).entries
+                .filter { it.value != root }
+                .map { it.name })
     }
 
     override fun completeArgumentName(
@@ -74,28 +94,24 @@ class DefaultAutoCompleter : AutoCompleter {
         localizer: Localizer?,
         appendArgPrefix: Boolean
     ) {
-        completions.addAll(command.arguments.getRemainingArguments(arguments)
-            .flatMap {
-                it.completions(localizer)
-            }.map { if (appendArgPrefix) "--$it" else it })
-    }
+        val remaining = command.arguments.getRemainingArguments(arguments)
+        val prefix = completions.prefix
 
-    private fun NamedAndAliased.completions(localizer: Localizer?): List<String> {
-        val completions = mutableListOf<String>()
-        completions += this.name
-        completions += this.alias
+        val names = prefix?.let {
+            val index = command.arguments.getNameIndex(localizer)
 
-        localizer?.let { loc ->
-            loc[this.nameComponent].let {
-                if (it != this.name)
-                    completions += it
-            }
-            this.aliasComponent?.let(loc::getLocalizations)?.let {
-                completions += it.map { loc[it] }
+            if (remaining.all { index.containsValue(it) }) {
+                val remainingSet = remaining.toHashSet()
+
+                index.withPrefix(prefix)
+                    .filter { remainingSet.contains(it.value) }
+                    .map { it.name }
+            } else {
+                remaining.flatMap { it.completionNames(localizer) }.filter { it.startsWith(prefix) }
             }
-        }
+        }?.takeIf { it.isNotEmpty() } ?: remaining.flatMap { it.completionNames(localizer) }
 
-        return completions
+        completions.addAll(names.map { if (appendArgPrefix) "--$it" else it })
     }
 
     override fun completeArgumentInput(
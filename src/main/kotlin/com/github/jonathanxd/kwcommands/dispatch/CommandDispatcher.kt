@@ -35,6 +35,8 @@ import com.github.jonathanxd.kwcommands.interceptor.CommandInterceptor
 import com.github.jonathanxd.kwcommands.manager.CommandManager
 import com.github.jonathanxd.kwcommands.processor.CommandResult
 import com.github.jonathanxd.kwcommands.processor.ResultHandler
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.Executor
 
 interface CommandDispatcher {
     /**
@@ -95,4 +97,51 @@ interface CommandDispatcher {
         informationProviders: InformationProviders = InformationProvidersVoid
     ): List<CommandResult>
 
+    /**
+     * Handle [commands] and sends each [result][CommandResult] of command executions to [sink] instead of
+     * returning a result list. Results are sent in the same order as they would appear in the list returned by
+     * [dispatch].
+     *
+     * @param commands Command to handle.
+     * @param informationProviders Information providers.
+     * @param sink Receiver of results, use [ResultSink.VOID] to ignore all results.
+     */
+    fun dispatch(
+        commands: List<CommandContainer>,
+        informationProviders: InformationProviders,
+        sink: ResultSink
+    ) {
+        this.dispatch(commands, informationProviders).forEach(sink::accept)
+    }
+
+    /**
+     * Asynchronously [dispatches][dispatch] [commands] in the [executor][DispatcherOptions.EXECUTOR] configured in [options].
+     *
+     * @see dispatchAsync
+     */
+    fun dispatchAsync(
+        commands: List<CommandContainer>,
+        informationProviders: InformationProviders = InformationProvidersVoid
+    ): CompletableFuture<List<CommandResult>> =
+        this.dispatchAsync(commands, informationProviders, this.options[DispatcherOptions.EXECUTOR])
+
+    /**
+     * Asynchronously [dispatches][dispatch] [commands] in [executor].
+     *
+     * All [commands] are dispatched in a single task, so interceptors and [dispatch handlers][DispatchHandler]
+     * are called in the same order as in [dispatch]. If any handler throws an exception, the returned future
+     * completes exceptionally with that exception.
+     *
+     * @param commands Command to handle.
+     * @param informationProviders Information providers.
+     * @param executor Executor to run dispatch task.
+     * @return Future of the result of command handling process.
+     */
+    fun dispatchAsync(
+        commands: List<CommandContainer>,
+        informationProviders: InformationProviders,
+        executor: Executor
+    ): CompletableFuture<List<CommandResult>> =
+        CompletableFuture.supplyAsync({ this.dispatch(commands, informationProviders) }, executor)
+
 }
\ No newline at end of file
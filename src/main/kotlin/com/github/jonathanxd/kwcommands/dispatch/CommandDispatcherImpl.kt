@@ -29,22 +29,41 @@ package com.github.jonathanxd.kwcommands.dispatch
 
 import com.github.jonathanxd.iutils.option.Options
 import com.github.jonathanxd.kwcommands.argument.ArgumentContainer
+import com.github.jonathanxd.kwcommands.command.Command
 import com.github.jonathanxd.kwcommands.command.CommandContainer
+import com.github.jonathanxd.kwcommands.command.CommandMetadata
 import com.github.jonathanxd.kwcommands.command.Container
 import com.github.jonathanxd.kwcommands.information.InformationProviders
+import com.github.jonathanxd.kwcommands.information.MemoizedInformationProviders
 import com.github.jonathanxd.kwcommands.interceptor.CommandInterceptor
 import com.github.jonathanxd.kwcommands.manager.CommandManager
 import com.github.jonathanxd.kwcommands.processor.*
-import com.github.jonathanxd.kwcommands.requirement.checkRequirements
+import com.github.jonathanxd.kwcommands.requirement.RequirementProgram
+import com.github.jonathanxd.kwcommands.requirement.RequirementTestCache
+import com.github.jonathanxd.kwcommands.requirement.UnsatisfiedRequirement
 import com.github.jonathanxd.kwcommands.util.MissingInformation
 import com.github.jonathanxd.kwcommands.util.checkRequiredInfo
 import java.util.*
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArraySet
+import java.util.concurrent.Executor
+import java.util.concurrent.Semaphore
 
 class CommandDispatcherImpl(override val commandManager: CommandManager) : CommandDispatcher {
     override val options: Options = Options()
 
-    private val interceptors = mutableSetOf<CommandInterceptor>()
-    private val dispatchHandlers = mutableSetOf<DispatchHandler>()
+    // Copy-on-write sets because asynchronous dispatches may iterate them while they are modified.
+    private val interceptors = CopyOnWriteArraySet<CommandInterceptor>()
+    private val dispatchHandlers = CopyOnWriteArraySet<DispatchHandler>()
+
+    /**
+     * Permits of commands with a [concurrency limit][CommandMetadata.MAX_CONCURRENT_DISPATCHES]. Keyed by full name
+     * and limit instead of command instance, so copies of a command (sub-commands, snapshots and reloads) share
+     * permits.
+     */
+    private val concurrencyLimits = ConcurrentHashMap<ConcurrencyLimitKey, Semaphore>()
 
     override fun registerInterceptor(commandInterceptor: CommandInterceptor): Boolean =
         this.interceptors.add(commandInterceptor)
@@ -63,80 +82,198 @@ class CommandDispatcherImpl(override val commandManager: CommandManager) : Comma
         informationProviders: InformationProviders
     ): List<CommandResult> {
         val results = mutableListOf<CommandResult>()
-        val perCommandResults = mutableListOf<CommandResult>()
 
-        commands.forEach { command ->
-            perCommandResults.clear()
+        this.dispatch(commands, informationProviders, ListSink(results), results, waitForPermits = false)
 
-            var container: CommandContainer? = command
+        return results
+    }
 
-            interceptors.forEach { interceptor ->
-                container?.let {
-                    container = interceptor.pre(command, it)
-                }
+    /**
+     * Same as [CommandDispatcher.dispatchAsync], but the dispatch task waits for
+     * [concurrency limits][CommandMetadata.MAX_CONCURRENT_DISPATCHES] of commands instead of rejecting them.
+     */
+    override fun dispatchAsync(
+        commands: List<CommandContainer>,
+        informationProviders: InformationProviders,
+        executor: Executor
+    ): CompletableFuture<List<CommandResult>> =
+        CompletableFuture.supplyAsync({
+            val results = mutableListOf<CommandResult>()
+
+            this.dispatch(commands, informationProviders, ListSink(results), results, waitForPermits = true)
+
+            results
+        }, executor)
+
+    override fun dispatch(
+        commands: List<CommandContainer>,
+        informationProviders: InformationProviders,
+        sink: ResultSink
+    ) {
+        if (this.dispatchHandlers.isEmpty()) {
+            this.dispatch(commands, informationProviders, sink, null, waitForPermits = false)
+        } else {
+            // Dispatch handlers receive all results at end of dispatch
+            val results = mutableListOf<CommandResult>()
+
+            this.dispatch(commands, informationProviders, ListSink(results, sink), results, waitForPermits = false)
+        }
+    }
+
+    /**
+     * Dispatches [commands] sending results to [sink], results are sent to [dispatch handlers][DispatchHandler]
+     * only if [results] is not `null` (then [sink] must add all results to [results]).
+     *
+     * @param waitForPermits Whether to wait for [concurrency limits][CommandMetadata.MAX_CONCURRENT_DISPATCHES]
+     * of commands, or report [ConcurrencyLimitResult] without waiting. Only dispatches that are already running
+     * in an executor should wait.
+     */
+    private fun dispatch(
+        commands: List<CommandContainer>,
+        informationProviders: InformationProviders,
+        sink: ResultSink,
+        results: List<CommandResult>?,
+        waitForPermits: Boolean
+    ) {
+        val context = DispatchContext(
+            informationProviders = this.memoized(informationProviders),
+            testCache = if (this.options[DispatcherOptions.CACHE_REQUIREMENT_TESTS]) RequirementTestCache() else null,
+            reportAll = this.options[DispatcherOptions.REPORT_ALL_UNSATISFIED_REQUIREMENTS],
+            interceptors = if (this.interceptors.isEmpty()) emptyList() else this.interceptors.toList(),
+            waitForPermits = waitForPermits
+        )
+        val independentExecutor = this.options[DispatcherOptions.INDEPENDENT_COMMANDS_EXECUTOR]
+        val concurrent = independentExecutor != null && context.interceptors.all { it.isThreadSafe }
+        var index = 0
+
+        while (index < commands.size) {
+            var end = index + 1
+
+            if (concurrent && commands[index].command.isOrderIndependent) {
+                while (end < commands.size && commands[end].command.isOrderIndependent)
+                    ++end
+            }
+
+            if (end - index == 1)
+                this.dispatchCommand(commands[index], context, sink)
+            else
+                this.dispatchConcurrently(
+                    commands.subList(index, end),
+                    context,
+                    sink,
+                    independentExecutor!!
+                )
+
+            index = end
+        }
+
+        if (results != null && this.dispatchHandlers.isNotEmpty() && results.isNotEmpty()) {
+            val resultsI = Collections.unmodifiableList(results)
+
+            this.dispatchHandlers.forEach {
+                it.handle(resultsI)
             }
+        }
+    }
 
+    /**
+     * Dispatches a single [command] sending results to [sink].
+     */
+    private fun dispatchCommand(command: CommandContainer, context: DispatchContext, sink: ResultSink) {
+        val informationProviders = context.informationProviders
+        val testCache = context.testCache
+        val reportAll = context.reportAll
+        val interceptors = context.interceptors
+        // Interceptors observes results of each command, so results are only sent to sink after CommandInterceptor.post
+        val perCommandResults = if (interceptors.isEmpty()) null else mutableListOf<CommandResult>()
+        val target = if (perCommandResults == null) sink else ListSink(perCommandResults)
+        val values = sink.acceptsValues || perCommandResults != null
+
+        var container: CommandContainer? = command
+
+        interceptors.forEach { interceptor ->
             container?.let {
-                val argWithReq = it.arguments.map { arg ->
-                    arg to arg.argument.requirements.checkRequirements(it, informationProviders)
-                }
+                container = interceptor.pre(command, it)
+            }
+        }
 
-                val argWithInfoReq = it.arguments.map {
-                    it to it.argument.requiredInfo.checkRequiredInfo(informationProviders)
-                }
+        container?.let {
+            val commandReq = command.command.requirementProgram.check(
+                it,
+                informationProviders,
+                testCache,
+                reportAll
+            )
 
-                val commandReq =
-                    command.command.requirements.checkRequirements(it, informationProviders)
+            val commandInfoReq =
+                if (commandReq.isNotEmpty() && !reportAll) emptyList()
+                else command.command.requiredInfo.checkRequiredInfo(informationProviders)
 
-                val commandInfoReq =
-                    command.command.requiredInfo.checkRequiredInfo(informationProviders)
+            if (commandReq.isNotEmpty()) {
+                target.accept(UnsatisfiedRequirementsResult(commandReq, null, it))
+            }
 
-                if (commandReq.isNotEmpty()) {
-                    perCommandResults.add(UnsatisfiedRequirementsResult(commandReq, null, it))
-                }
+            if (commandInfoReq.isNotEmpty()) {
+                target.accept(
+                    MissingInformationResult(
+                        missingInformationList = commandInfoReq,
+                        requester = command.command,
+                        rootContainer = null,
+                        container = it
+                    )
+                )
+            }
 
-                if (commandInfoReq.isNotEmpty()) {
-                    perCommandResults.add(
-                        MissingInformationResult(
-                            missingInformationList = commandInfoReq,
-                            requester = command.command,
-                            rootContainer = null,
-                            container = it
-                        )
+            var anyArgumentReqMissing = false
+
+            // Argument requirements are only checked when command requirements are satisfied
+            if (commandReq.isEmpty() && commandInfoReq.isEmpty()) {
+                it.arguments.forEach { arg ->
+                    if (anyArgumentReqMissing && !reportAll)
+                        return@forEach
+
+                    val req = arg.argument.requirementProgram.check(
+                        it,
+                        informationProviders,
+                        testCache,
+                        reportAll
                     )
-                }
 
-                var anyArgumentReqMissing = false
-
-                if (commandReq.isEmpty() && commandInfoReq.isEmpty() && !anyArgumentReqMissing) { // <-- WHAT?
-                    argWithReq.forEach { (arg, req) ->
-                        if (req.isNotEmpty()) {
-                            anyArgumentReqMissing = true
-                            perCommandResults.add(
-                                UnsatisfiedRequirementsResult(
-                                    req,
-                                    rootContainer = it,
-                                    container = arg
-                                )
+                    if (req.isNotEmpty()) {
+                        anyArgumentReqMissing = true
+                        target.accept(
+                            UnsatisfiedRequirementsResult(
+                                req,
+                                rootContainer = it,
+                                container = arg
                             )
-                        }
+                        )
                     }
+                }
+
+                it.arguments.forEach { arg ->
+                    if (anyArgumentReqMissing && !reportAll)
+                        return@forEach
 
-                    argWithInfoReq.forEach { (arg, infoReq) ->
-                        if (infoReq.isNotEmpty()) {
-                            anyArgumentReqMissing = true
-
-                            perCommandResults.add(
-                                MissingInformationResult(
-                                    missingInformationList = infoReq,
-                                    requester = arg,
-                                    rootContainer = it,
-                                    container = arg
-                                )
+                    val infoReq = arg.argument.requiredInfo.checkRequiredInfo(informationProviders)
+
+                    if (infoReq.isNotEmpty()) {
+                        anyArgumentReqMissing = true
+
+                        target.accept(
+                            MissingInformationResult(
+                                missingInformationList = infoReq,
+                                requester = arg,
+                                rootContainer = it,
+                                container = arg
                             )
-                        }
+                        )
                     }
+                }
 
+                this.withPermit(it.command, context.waitForPermits, { max ->
+                    target.accept(ConcurrencyLimitResult(max, null, it))
+                }) {
                     var shouldExecuteCommand = !anyArgumentReqMissing
 
                     // Process arguments first because arguments must be resolved before command handling
@@ -146,7 +283,8 @@ class CommandDispatcherImpl(override val commandManager: CommandManager) : Comma
                             val resultHandler = ParticularResultHandler(
                                 root = it,
                                 current = arg,
-                                targetList = perCommandResults
+                                target = target,
+                                values = values
                             )
 
                             val handle =
@@ -163,7 +301,8 @@ class CommandDispatcherImpl(override val commandManager: CommandManager) : Comma
                         val resultHandler = ParticularResultHandler(
                             root = null,
                             current = it,
-                            targetList = perCommandResults
+                            target = target,
+                            values = values
                         )
 
                         it.handler?.let { handler ->
@@ -175,30 +314,151 @@ class CommandDispatcherImpl(override val commandManager: CommandManager) : Comma
 
                     }
                 }
+            }
 
+            if (perCommandResults != null) {
                 interceptors.forEach { interceptor ->
                     interceptor.post(command, it, perCommandResults)
                 }
 
-                results.addAll(perCommandResults)
+                perCommandResults.forEach(sink::accept)
             }
         }
+    }
 
-        if (this.dispatchHandlers.isNotEmpty() && results.isNotEmpty()) {
-            val resultsI = Collections.unmodifiableList(results)
+    /**
+     * Dispatches [order independent][Command.isOrderIndependent] [commands] concurrently, the first command in
+     * the calling thread and the others in [executor]. Each command is dispatched in a single task, so
+     * [CommandInterceptor.pre] and [CommandInterceptor.post] of a command are called in the same task, and results
+     * are sent to [sink] in the order of [commands].
+     *
+     * Tasks share [context], so interceptors must be [thread-safe][CommandInterceptor.isThreadSafe], memoized
+     * information and cached requirement tests are shared between tasks.
+     *
+     * If the dispatch of any command fails, the exception of the first failed command (in the order of [commands])
+     * is thrown after all commands finish, and only results of commands before the failed command are sent to [sink].
+     */
+    private fun dispatchConcurrently(
+        commands: List<CommandContainer>,
+        context: DispatchContext,
+        sink: ResultSink,
+        executor: Executor
+    ) {
+        val values = sink.acceptsValues
+        val others = commands.subList(1, commands.size).map { command ->
+            CompletableFuture.supplyAsync({ this.dispatchToList(command, context, values) }, executor)
+        }
 
-            this.dispatchHandlers.forEach {
-                it.handle(resultsI)
+        val first = try {
+            CompletableFuture.completedFuture(this.dispatchToList(commands.first(), context, values))
+        } catch (e: Throwable) {
+            CompletableFuture<List<CommandResult>>().also { it.completeExceptionally(e) }
+        }
+
+        val futures = listOf(first) + others
+
+        var failure: Throwable? = null
+
+        futures.forEach { future ->
+            try {
+                val results = future.join()
+
+                if (failure == null)
+                    results.forEach(sink::accept)
+            } catch (e: CompletionException) {
+                if (failure == null)
+                    failure = e.cause ?: e
             }
         }
 
-        return results
+        failure?.let { throw it }
+    }
+
+    private fun dispatchToList(
+        command: CommandContainer,
+        context: DispatchContext,
+        acceptsValues: Boolean
+    ): List<CommandResult> =
+        mutableListOf<CommandResult>().also {
+            this.dispatchCommand(command, context, ListSink(it, acceptsValues = acceptsValues))
+        }
+
+    /**
+     * Evaluates all requirements of this program if [reportAll] is `true`, or only until the first unsatisfied requirement.
+     */
+    private fun RequirementProgram.check(
+        container: CommandContainer,
+        informationProviders: InformationProviders,
+        testCache: RequirementTestCache?,
+        reportAll: Boolean
+    ): List<UnsatisfiedRequirement<*>> =
+        if (reportAll) this.failures(container, informationProviders, testCache)
+        else this.firstFailure(container, informationProviders, testCache)?.let { listOf(it) } ?: emptyList()
+
+    /**
+     * Wraps [informationProviders] in a [MemoizedInformationProviders] if [DispatcherOptions.MEMOIZE_INFORMATION] is enabled.
+     */
+    private fun memoized(informationProviders: InformationProviders): InformationProviders =
+        if (informationProviders is MemoizedInformationProviders
+            || !this.options[DispatcherOptions.MEMOIZE_INFORMATION]) informationProviders
+        else MemoizedInformationProviders(informationProviders)
+
+    /**
+     * Runs [function] holding a permit of [command] if [command] has a [concurrency limit][CommandMetadata.MAX_CONCURRENT_DISPATCHES].
+     * If there is no permit available and [wait] is `false`, calls [rejected] with the limit instead.
+     */
+    private inline fun withPermit(command: Command, wait: Boolean, rejected: (max: Int) -> Unit, function: () -> Unit) {
+        val max = command.metadata[CommandMetadata.MAX_CONCURRENT_DISPATCHES] as? Int ?: return function()
+        val limit = this.concurrencyLimits.computeIfAbsent(ConcurrencyLimitKey(command.fullname, max)) {
+            Semaphore(it.max)
+        }
+
+        if (wait) {
+            limit.acquire()
+        } else if (!limit.tryAcquire()) {
+            rejected(max)
+            return
+        }
+
+        try {
+            function()
+        } finally {
+            limit.release()
+        }
+    }
+
+    private data class ConcurrencyLimitKey(val fullname: String, val max: Int)
+
+    private class DispatchContext(
+        val informationProviders: InformationProviders,
+        val testCache: RequirementTestCache?,
+        val reportAll: Boolean,
+        val interceptors: List<CommandInterceptor>,
+        val waitForPermits: Boolean
+    )
+
+    /**
+     * Sink that adds results to [list] and then sends to [next].
+     */
+    private class ListSink(
+        val list: MutableList<CommandResult>,
+        val next: ResultSink? = null,
+        override val acceptsValues: Boolean = true
+    ) : ResultSink {
+        override fun accept(result: CommandResult) {
+            this.list += result
+            this.next?.accept(result)
+        }
     }
 
+    /**
+     * @property values Whether [ValueResult]s are sent to [target].
+     */
     private class ParticularResultHandler(
         val root: Container?,
         val current: Container,
-        val targetList: MutableList<CommandResult>
+        val target: ResultSink,
+        val values: Boolean
     ) : ResultHandler {
 
         private var cancel = false
@@ -208,11 +468,13 @@ class CommandDispatcherImpl(override val commandManager: CommandManager) : Comma
             requester: Any,
             cancel: Boolean
         ) {
-            this.targetList += MissingInformationResult(
-                missingInformationList,
-                requester,
-                root,
-                current
+            this.target.accept(
+                MissingInformationResult(
+                    missingInformationList,
+                    requester,
+                    root,
+                    current
+                )
             )
 
             if (cancel)
@@ -220,7 +482,8 @@ class CommandDispatcherImpl(override val commandManager: CommandManager) : Comma
         }
 
         override fun result(value: Any?) {
-            this.targetList += ValueResult(value, root, current)
+            if (this.values)
+                this.target.accept(ValueResult(value, root, current))
         }
 
         override fun shouldCancel(): Boolean {
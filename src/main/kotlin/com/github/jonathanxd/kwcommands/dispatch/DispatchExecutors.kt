@@ -0,0 +1,135 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.dispatch
+
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.SynchronousQueue
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Executors for [asynchronous dispatches][CommandDispatcher.dispatchAsync].
+ */
+object DispatchExecutors {
+
+    /**
+     * Default [executor of dispatches][DispatcherOptions.EXECUTOR], a [virtual thread executor][newVirtualThreadExecutor]
+     * that falls back to at most four platform threads per available processor. Command handlers may block
+     * in this executor.
+     */
+    @JvmStatic
+    val defaultExecutor: ExecutorService by lazy {
+        newVirtualThreadExecutor(Runtime.getRuntime().availableProcessors() * 4)
+    }
+
+    /**
+     * Default [executor of order independent commands][DispatcherOptions.INDEPENDENT_COMMANDS_EXECUTOR], a
+     * [virtual thread executor][newVirtualThreadPerTaskExecutor] that falls back to an
+     * [unbounded pool][newUnboundedExecutor]. Tasks never wait for other tasks to finish, so a dispatch that waits for
+     * its order independent commands cannot starve this executor.
+     */
+    @JvmStatic
+    val independentCommandsExecutor: ExecutorService by lazy {
+        newVirtualThreadPerTaskExecutor() ?: newUnboundedExecutor()
+    }
+
+    /**
+     * Creates an executor that runs each task in a new virtual thread, so blocking command handlers
+     * does not hold platform threads.
+     *
+     * When the running JVM does not support virtual threads, a pool of at most [maxPlatformThreads]
+     * daemon threads is created instead, tasks that exceeds the pool size waits in an unbounded queue.
+     *
+     * Use with [DispatcherOptions.EXECUTOR].
+     */
+    @JvmStatic
+    fun newVirtualThreadExecutor(maxPlatformThreads: Int): ExecutorService =
+        newVirtualThreadPerTaskExecutor() ?: newBoundedExecutor(maxPlatformThreads)
+
+    /**
+     * Returns true if the running JVM supports virtual threads.
+     */
+    @JvmStatic
+    val isVirtualThreadSupported: Boolean by lazy {
+        val executor = newVirtualThreadPerTaskExecutor()
+        executor?.shutdown()
+        executor != null
+    }
+
+    /**
+     * Creates a pool of at most [maxThreads] daemon threads, idle threads are terminated after one minute.
+     */
+    @JvmStatic
+    fun newBoundedExecutor(maxThreads: Int): ExecutorService {
+        require(maxThreads > 0) { "maxThreads must be greater than zero" }
+
+        return ThreadPoolExecutor(
+            maxThreads, maxThreads,
+            1L, TimeUnit.MINUTES,
+            LinkedBlockingQueue(),
+            this.threadFactory()
+        ).also { it.allowCoreThreadTimeOut(true) }
+    }
+
+    /**
+     * Creates a pool of daemon threads that starts a new thread when all threads are busy, idle threads
+     * are terminated after one minute.
+     */
+    @JvmStatic
+    fun newUnboundedExecutor(): ExecutorService =
+        ThreadPoolExecutor(
+            0, Int.MAX_VALUE,
+            1L, TimeUnit.MINUTES,
+            SynchronousQueue(),
+            this.threadFactory()
+        )
+
+    private fun threadFactory(): ThreadFactory {
+        val ids = AtomicInteger()
+
+        return ThreadFactory {
+            Thread(it, "kwcommands-dispatch-${ids.incrementAndGet()}").apply { isDaemon = true }
+        }
+    }
+
+    /**
+     * Calls `Executors.newVirtualThreadPerTaskExecutor` reflectively because KWCommands targets Java 8.
+     */
+    private fun newVirtualThreadPerTaskExecutor(): ExecutorService? =
+        try {
+            Executors::class.java.getMethod("newVirtualThreadPerTaskExecutor").invoke(null) as ExecutorService
+        } catch (e: ReflectiveOperationException) {
+            null
+        } catch (e: UnsupportedOperationException) {
+            null
+        }
+}
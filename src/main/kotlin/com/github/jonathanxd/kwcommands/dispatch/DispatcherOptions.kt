@@ -0,0 +1,92 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.dispatch
+
+import com.github.jonathanxd.iutils.option.Option
+import java.util.concurrent.Executor
+import java.util.concurrent.ForkJoinPool
+
+/**
+ * Options of [CommandDispatcher]. Options are set in [CommandDispatcher.options].
+ */
+object DispatcherOptions {
+
+    /**
+     * Executor of [asynchronous dispatches][CommandDispatcher.dispatchAsync]. Defaults to
+     * [DispatchExecutors.defaultExecutor], so blocking command handlers does not starve the
+     * [common pool][ForkJoinPool.commonPool].
+     */
+    @JvmField
+    val EXECUTOR: Option<Executor> = Option(DispatchExecutors.defaultExecutor)
+
+    /**
+     * Whether information found during a [dispatch][CommandDispatcher.dispatch] is remembered until the end of the
+     * dispatch. Information providers are called at most once per information in a dispatch when enabled.
+     * Defaults to `false`.
+     *
+     * Only enable when information providers does not depend on state that commands of a dispatch may change,
+     * otherwise commands of a chain see information resolved before previous commands of the chain ran.
+     *
+     * @see com.github.jonathanxd.kwcommands.information.MemoizedInformationProviders
+     */
+    @JvmField
+    val MEMOIZE_INFORMATION: Option<Boolean> = Option(false)
+
+    /**
+     * Whether all unsatisfied requirements and missing information of a command are reported. When disabled,
+     * requirements are only checked until the first unsatisfied requirement or missing information.
+     * Defaults to `true`.
+     */
+    @JvmField
+    val REPORT_ALL_UNSATISFIED_REQUIREMENTS: Option<Boolean> = Option(true)
+
+    /**
+     * Whether results of [requirement testers][com.github.jonathanxd.kwcommands.requirement.RequirementTester]
+     * are cached during a [dispatch][CommandDispatcher.dispatch], so a requirement is tested only once against
+     * the same value. Defaults to `false`.
+     *
+     * Only enable when all requirement testers are deterministic and does not depend on state that may change
+     * during a dispatch.
+     *
+     * @see com.github.jonathanxd.kwcommands.requirement.RequirementTestCache
+     */
+    @JvmField
+    val CACHE_REQUIREMENT_TESTS: Option<Boolean> = Option(false)
+
+    /**
+     * Executor of concurrent dispatches of consecutive [order independent][com.github.jonathanxd.kwcommands.command.Command.isOrderIndependent]
+     * commands of a command chain, or `null` to dispatch them one after another in the dispatching thread.
+     * Defaults to [DispatchExecutors.independentCommandsExecutor].
+     *
+     * The first command of a group runs in the dispatching thread, which then waits for the other commands, so the
+     * executor must not be a bounded executor that also runs dispatches (such as a bounded [EXECUTOR]),
+     * otherwise all of its threads may wait for commands queued behind them.
+     */
+    @JvmField
+    val INDEPENDENT_COMMANDS_EXECUTOR: Option<Executor?> = Option(DispatchExecutors.independentCommandsExecutor)
+}
@@ -0,0 +1,65 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.dispatch
+
+import com.github.jonathanxd.kwcommands.processor.CommandResult
+import com.github.jonathanxd.kwcommands.processor.ValueResult
+
+/**
+ * Receives [results][CommandResult] of a [dispatch][CommandDispatcher.dispatch] as soon as they are
+ * available, results are not retained by the dispatcher.
+ */
+interface ResultSink {
+
+    /**
+     * Whether this sink receives [ValueResult]s. If `false`, the dispatcher may skip creation of [ValueResult]s
+     * (which are not sent to this sink) when no [interceptor][com.github.jonathanxd.kwcommands.interceptor.CommandInterceptor]
+     * or [dispatch handler][DispatchHandler] observes the results.
+     */
+    val acceptsValues: Boolean
+        get() = true
+
+    /**
+     * Accepts a [result] of dispatch.
+     */
+    fun accept(result: CommandResult)
+
+    companion object {
+        /**
+         * Sink that ignores all results, used for fire-and-forget dispatches.
+         */
+        @JvmField
+        val VOID: ResultSink = object : ResultSink {
+            override val acceptsValues: Boolean
+                get() = false
+
+            override fun accept(result: CommandResult) {
+            }
+        }
+    }
+}
@@ -522,6 +522,7 @@ class BuildingCommand {
     val requiredInfo = USet<RequiredInformation>()
     val alias = UList<String>()
     var aliasComponent: TextComponent? = null
+    val metadata = mutableMapOf<String, Any>()
 
     inline fun order(f: () -> Int) {
         this.order = f()
@@ -548,6 +549,9 @@ class BuildingCommand {
         this.aliasComponent = f()
     }
 
+    inline fun metadata(f: MutableMap<String, Any>.() -> Unit) =
+        f(this.metadata)
+
     inline fun handler(
         crossinline f: (
             commandContainer: CommandContainer,
@@ -596,7 +600,8 @@ class BuildingCommand {
         requirements = this.requirements.coll.toList(),
         requiredInfo = this.requiredInfo.coll.toSet(),
         alias = this.alias.coll.toList(),
-        aliasComponent = this.aliasComponent
+        aliasComponent = this.aliasComponent,
+        metadata = this.metadata.toMap()
     )
 }
 
@@ -43,6 +43,7 @@ import com.github.jonathanxd.kwcommands.parser.MapInput
 import com.github.jonathanxd.kwcommands.parser.SingleInput
 import com.github.jonathanxd.kwcommands.printer.Printer
 import com.github.jonathanxd.kwcommands.processor.CommandResult
+import com.github.jonathanxd.kwcommands.processor.ConcurrencyLimitResult
 import com.github.jonathanxd.kwcommands.processor.MissingInformationResult
 import com.github.jonathanxd.kwcommands.processor.UnsatisfiedRequirementsResult
 import com.github.jonathanxd.kwcommands.processor.ValueResult
@@ -584,6 +585,15 @@ class CommonHelpInfoHandler : HelpInfoHandler {
 
                 printer.flush()
             }
+            is ConcurrencyLimitResult -> {
+                printer.printPlain(
+                    Texts.getConcurrencyLimitText(
+                        commandResult.str(),
+                        commandResult.maxConcurrentDispatches.toString()
+                    )
+                )
+                printer.flush()
+            }
         }
     }
 
@@ -213,6 +213,14 @@ interface InformationProviders {
      */
     fun copy(): InformationProviders
 
+    /**
+     * Creates a child of this manager, information registered in the child does not affect this instance and
+     * information of this instance is looked up without being copied to the child.
+     *
+     * @see LayeredInformationProviders
+     */
+    fun child(): InformationProviders = LayeredInformationProviders(this)
+
     // With id variants
 
     /**
@@ -32,15 +32,42 @@ import com.github.jonathanxd.iutils.collection.Comparators3
 import com.github.jonathanxd.iutils.type.TypeInfo
 import com.github.jonathanxd.iutils.type.TypeInfoSortComparator
 import java.util.*
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CopyOnWriteArraySet
 import java.util.function.Function
 
 /**
  * Common implementation of [InformationProviders].
+ *
+ * Static information is indexed by [type][Information.Id.type] and the static information found for a
+ * requested type and tags is remembered until static information is registered or unregistered.
+ *
+ * This class is thread-safe: lookups never lock and may run concurrently with registrations, registrations
+ * are serialized and are cheaper when done before lookups begin (each one copies the registered
+ * information set and discards remembered lookups).
  */
-class InformationProvidersImpl : InformationProviders {
+class InformationProvidersImpl private constructor(source: InformationProvidersImpl?) : InformationProviders {
+
+    constructor() : this(null)
+
+    private val lock = Any()
+
+    // Copies of a source are built in bulk (source must be locked)
+    private val informationSet_ =
+        source?.let { CopyOnWriteArraySet(it.informationSet_) } ?: CopyOnWriteArraySet<Information<*>>()
+    private val informationProviders_ =
+        source?.let { CopyOnWriteArraySet(it.informationProviders_) } ?: CopyOnWriteArraySet<InformationProvider>()
+    private val informationByType = ConcurrentHashMap<TypeInfo<*>, CopyOnWriteArrayList<Information<*>>>().also { map ->
+        source?.informationByType?.forEach { (type, information) -> map[type] = CopyOnWriteArrayList(information) }
+    }
 
-    private val informationSet_ = mutableSetOf<Information<*>>()
-    private val informationProviders_ = mutableSetOf<InformationProvider>()
+    /**
+     * Static information found for requested types and tags. Replaced instead of cleared on modifications,
+     * so lookups that started before a modification can only store stale results in the discarded map.
+     */
+    @Volatile
+    private var resolved = ConcurrentHashMap<TypeInfo<*>, Array<Resolution>>()
 
     override val informationSet: Set<Information<*>> =
         Collections.unmodifiableSet(this.informationSet_)
@@ -48,7 +75,15 @@ class InformationProvidersImpl : InformationProviders {
         Collections.unmodifiableSet(this.informationProviders_)
 
     init {
-        this.registerInformation(INFORMATION_PROVIDERS_ID, this, "Information manager")
+        if (source != null) {
+            // A copy provides itself instead of the source
+            val sourceInformation = Information(INFORMATION_PROVIDERS_ID, source, DESCRIPTION)
+
+            this.informationSet_.remove(sourceInformation)
+            this.informationByType[INFORMATION_PROVIDERS_ID.type]?.remove(sourceInformation)
+        }
+
+        this.registerInformation(INFORMATION_PROVIDERS_ID, this, DESCRIPTION)
     }
 
     override fun <T> registerInformation(
@@ -56,13 +91,33 @@ class InformationProvidersImpl : InformationProviders {
         value: T,
         description: String?
     ): Boolean =
-        this.informationSet_.add(Information(id, value, description))
+        this.registerInformation(Information(id, value, description))
 
     override fun registerInformation(information: Information<*>): Boolean =
-        this.informationSet_.add(information)
+        synchronized(this.lock) {
+            if (!this.informationSet_.add(information))
+                return false
+
+            this.informationByType.getOrPut(information.id.type) { CopyOnWriteArrayList() } += information
+            this.resolved = ConcurrentHashMap()
+            return true
+        }
 
     override fun unregisterInformation(id: Information.Id<*>): Boolean =
-        this.informationSet_.removeIf { it.id == id }
+        synchronized(this.lock) {
+            val ofType = this.informationByType[id.type] ?: return false
+
+            // Same id may be registered with different values
+            if (!ofType.removeIf { it.id == id })
+                return false
+
+            if (ofType.isEmpty())
+                this.informationByType.remove(id.type)
+
+            this.informationSet_.removeIf { it.id == id }
+            this.resolved = ConcurrentHashMap()
+            return true
+        }
 
     override fun registerInformationProvider(informationProvider: InformationProvider): Boolean =
         this.informationProviders_.add(informationProvider)
@@ -76,29 +131,16 @@ class InformationProvidersImpl : InformationProviders {
         tags: Array<out String>,
         useProviders: Boolean
     ): Information<T>? {
-        val assignFound = mutableListOf<Information<*>>()
-
-        informationSet_.forEach {
-            val itId = it.id
-
-            val tagsMatch = tags.isEmpty() || tags.all { itId.tags.contains(it) }
-
-            if ((type == Default::class.java || type == itId.type)
-                    && tagsMatch
-            )
-                return it as Information<T>
+        val resolved = this.resolved
+        val found = resolved[type]?.firstOrNull { it.tags.contentEquals(tags) }?.information
+            ?: (this.resolve(type, tags) ?: NOT_FOUND).also { information ->
+                val resolution = arrayOf(Resolution(tags.copyOf(), information))
 
-            if (tagsMatch && type.isAssignableFrom(itId.type))
-                assignFound += it
-        }
+                resolved.merge(type, resolution) { old, new -> old + new }
+            }
 
-        if (assignFound.isNotEmpty()) {
-            return assignFound.maxWith(
-                Comparators3.map(
-                    comparator,
-                    Function { it.id.type })
-            ) as Information<T>
-        }
+        if (found !== NOT_FOUND)
+            return found as Information<T>
 
         if (!useProviders)
             return null
@@ -112,17 +154,46 @@ class InformationProvidersImpl : InformationProviders {
         return null
     }
 
-    override fun copy(): InformationProviders {
-        val newManager = InformationProvidersImpl()
+    /**
+     * Resolves static information of [type] with [tags].
+     */
+    private fun resolve(type: TypeInfo<*>, tags: Array<out String>): Information<*>? {
+        val exact =
+            if (type == Default::class.java) this.informationSet_
+            else this.informationByType[type].orEmpty()
 
-        newManager.informationSet_.addAll(this.informationSet_)
-        newManager.informationProviders_.addAll(this.informationProviders_)
+        exact.firstOrNull { it.id.hasTags(tags) }?.let {
+            return it
+        }
 
-        return newManager
+        return this.informationSet_
+            .filter { it.id.hasTags(tags) && type.isAssignableFrom(it.id.type) }
+            .maxWith(
+                Comparators3.map(
+                    comparator,
+                    Function { it.id.type })
+            )
     }
 
+    private fun Information.Id<*>.hasTags(tags: Array<out String>) =
+        tags.isEmpty() || tags.all { this.tags.contains(it) }
+
+    override fun copy(): InformationProviders =
+        synchronized(this.lock) {
+            InformationProvidersImpl(this)
+        }
+
+    /**
+     * Static information (or [NOT_FOUND]) found for a type with [tags].
+     */
+    private class Resolution(val tags: Array<out String>, val information: Information<*>)
+
     companion object {
         internal val comparator = TypeInfoSortComparator()
+
+        private const val DESCRIPTION = "Information manager"
+
+        private val NOT_FOUND = Information(Information.Id(TypeInfo.of(Unit::class.java), emptyArray()), Unit, null)
     }
 
 }
@@ -155,4 +226,6 @@ object InformationProvidersVoid : InformationProviders {
     ): Information<T>? = null
 
     override fun copy(): InformationProviders = this
+
+    override fun child(): InformationProviders = this
 }
\ No newline at end of file
@@ -0,0 +1,149 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.information
+
+import com.github.jonathanxd.iutils.`object`.Default
+import com.github.jonathanxd.iutils.collection.Comparators3
+import com.github.jonathanxd.iutils.type.TypeInfo
+import java.util.function.Function
+
+/**
+ * [InformationProviders] that holds a small set of local information and providers and falls back to
+ * information and providers of [parent], without copying them. Local information takes precedence over
+ * information of [parent] with the same type and tags.
+ *
+ * Information and providers registered in [parent] after the creation of this instance are also visible in this
+ * instance, only local information and providers can be unregistered.
+ *
+ * @see InformationProviders.child
+ */
+class LayeredInformationProviders(val parent: InformationProviders) : InformationProviders {
+
+    private val localInformation = mutableListOf<Information<*>>()
+    private val localProviders = mutableListOf<InformationProvider>()
+
+    override val informationSet: Set<Information<*>>
+        get() = linkedSetOf<Information<*>>().apply {
+            addAll(this@LayeredInformationProviders.localInformation)
+            addAll(this@LayeredInformationProviders.parent.informationSet)
+        }
+
+    override val informationProviders: Set<InformationProvider>
+        get() = linkedSetOf<InformationProvider>().apply {
+            addAll(this@LayeredInformationProviders.localProviders)
+            addAll(this@LayeredInformationProviders.parent.informationProviders)
+        }
+
+    init {
+        this.registerInformation(INFORMATION_PROVIDERS_ID, this, "Information manager")
+    }
+
+    override fun <T> registerInformation(
+        id: Information.Id<T>,
+        value: T,
+        description: String?
+    ): Boolean =
+        this.registerInformation(Information(id, value, description))
+
+    override fun registerInformation(information: Information<*>): Boolean =
+        if (this.localInformation.contains(information)) false
+        else this.localInformation.add(information)
+
+    override fun unregisterInformation(id: Information.Id<*>): Boolean =
+        this.localInformation.removeIf { it.id == id }
+
+    override fun registerInformationProvider(informationProvider: InformationProvider): Boolean =
+        if (this.localProviders.contains(informationProvider)) false
+        else this.localProviders.add(informationProvider)
+
+    override fun unregisterInformationProvider(informationProvider: InformationProvider): Boolean =
+        this.localProviders.remove(informationProvider)
+
+    @Suppress("UNCHECKED_CAST")
+    override fun <T> find(
+        type: TypeInfo<out T>,
+        tags: Array<out String>,
+        useProviders: Boolean
+    ): Information<T>? {
+        this.localInformation.firstOrNull {
+            (type == Default::class.java || type == it.id.type) && it.id.hasTags(tags)
+        }?.let {
+            return it as Information<T>
+        }
+
+        val parentFound = this.parent.find(type, tags, useProviders = false)
+
+        if (parentFound != null && parentFound.id.type == type)
+            return parentFound
+
+        val assignFound = this.localInformation.filterTo(mutableListOf()) {
+            it.id.hasTags(tags) && type.isAssignableFrom(it.id.type)
+        }
+
+        if (parentFound != null)
+            assignFound += parentFound
+
+        if (assignFound.isNotEmpty()) {
+            return assignFound.maxWith(
+                Comparators3.map(
+                    InformationProvidersImpl.comparator,
+                    Function { it.id.type })
+            ) as Information<T>
+        }
+
+        if (!useProviders)
+            return null
+
+        this.localProviders.forEach {
+            it.provide(type, tags, this)?.let {
+                return it
+            }
+        }
+
+        this.parent.informationProviders.forEach {
+            it.provide(type, tags, this)?.let {
+                return it
+            }
+        }
+
+        return null
+    }
+
+    private fun Information.Id<*>.hasTags(tags: Array<out String>) =
+        tags.isEmpty() || tags.all { this.tags.contains(it) }
+
+    override fun copy(): InformationProviders {
+        val newProviders = LayeredInformationProviders(this.parent)
+
+        this.localInformation.forEach { newProviders.registerInformation(it) }
+        newProviders.localProviders.addAll(this.localProviders)
+
+        return newProviders
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.information
+
+import com.github.jonathanxd.iutils.type.TypeInfo
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * View of [delegate] that remembers every information found by [find], including information provided by
+ * [information providers][InformationProvider] and information that could not be found, so each information is
+ * resolved only once. Registering or unregistering information or providers through this view clears
+ * remembered information.
+ *
+ * This view is intended to be short-lived, [CommandDispatcherImpl][com.github.jonathanxd.kwcommands.dispatch.CommandDispatcherImpl]
+ * creates one for each dispatch, so information provided by providers is resolved again in next dispatch.
+ */
+class MemoizedInformationProviders(val delegate: InformationProviders) : InformationProviders {
+
+    private val found = ConcurrentHashMap<Key, Information<*>>()
+
+    override val informationSet: Set<Information<*>>
+        get() = this.delegate.informationSet
+
+    override val informationProviders: Set<InformationProvider>
+        get() = this.delegate.informationProviders
+
+    override fun <T> registerInformation(
+        id: Information.Id<T>,
+        value: T,
+        description: String?
+    ): Boolean =
+        this.delegate.registerInformation(id, value, description).also { this.found.clear() }
+
+    override fun registerInformation(information: Information<*>): Boolean =
+        this.delegate.registerInformation(information).also { this.found.clear() }
+
+    override fun unregisterInformation(id: Information.Id<*>): Boolean =
+        this.delegate.unregisterInformation(id).also { this.found.clear() }
+
+    override fun registerInformationProvider(informationProvider: InformationProvider): Boolean =
+        this.delegate.registerInformationProvider(informationProvider).also { this.found.clear() }
+
+    override fun unregisterInformationProvider(informationProvider: InformationProvider): Boolean =
+        this.delegate.unregisterInformationProvider(informationProvider).also { this.found.clear() }
+
+    @Suppress("UNCHECKED_CAST")
+    override fun <T> find(
+        type: TypeInfo<out T>,
+        tags: Array<out String>,
+        useProviders: Boolean
+    ): Information<T>? {
+        val key = Key(type, tags.toList(), useProviders)
+
+        val information = this.found[key] ?: (this.delegate.find(type, tags, useProviders) ?: NOT_FOUND).let {
+            this.found.putIfAbsent(key, it) ?: it
+        }
+
+        return if (information === NOT_FOUND) null else information as Information<T>
+    }
+
+    override fun copy(): InformationProviders = this.delegate.copy()
+
+    /**
+     * Clears remembered information.
+     */
+    fun invalidate() {
+        this.found.clear()
+    }
+
+    private data class Key(val type: TypeInfo<*>, val tags: List<String>, val useProviders: Boolean)
+
+    companion object {
+        private val NOT_FOUND = Information(Information.Id(TypeInfo.of(Unit::class.java), emptyArray()), Unit, null)
+    }
+}
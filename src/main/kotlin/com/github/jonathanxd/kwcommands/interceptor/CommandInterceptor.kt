@@ -39,6 +39,15 @@ import com.github.jonathanxd.kwcommands.processor.CommandResult
  */
 interface CommandInterceptor {
 
+    /**
+     * Whether this interceptor may be called by many threads at the same time. Consecutive
+     * [order independent][com.github.jonathanxd.kwcommands.command.Command.isOrderIndependent] commands
+     * are only dispatched concurrently if all registered interceptors are thread-safe, otherwise they
+     * are dispatched one after another. Defaults to `false`.
+     */
+    val isThreadSafe: Boolean
+        get() = false
+
     /**
      * Called before command handling.
      *
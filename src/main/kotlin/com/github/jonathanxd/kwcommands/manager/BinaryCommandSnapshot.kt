@@ -0,0 +1,458 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.manager
+
+import com.github.jonathanxd.iutils.text.ArgsAppliedText
+import com.github.jonathanxd.iutils.text.LocalizableComponent
+import com.github.jonathanxd.iutils.text.StringComponent
+import com.github.jonathanxd.iutils.text.Text
+import com.github.jonathanxd.iutils.text.TextComponent
+import com.github.jonathanxd.kwcommands.argument.Argument
+import com.github.jonathanxd.kwcommands.argument.ArgumentHandler
+import com.github.jonathanxd.kwcommands.argument.ArgumentType
+import com.github.jonathanxd.kwcommands.argument.StaticListArguments
+import com.github.jonathanxd.kwcommands.command.Command
+import com.github.jonathanxd.kwcommands.command.Handler
+import com.github.jonathanxd.kwcommands.information.RequiredInformation
+import com.github.jonathanxd.kwcommands.requirement.Requirement
+import java.io.BufferedOutputStream
+import java.io.DataOutputStream
+import java.io.IOException
+import java.nio.BufferUnderflowException
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardCopyOption
+import java.nio.file.StandardOpenOption
+
+/**
+ * Compact binary snapshot of command trees, used to skip building commands from annotations and JSON at startup.
+ *
+ * A snapshot stores names, orders, aliases, arguments, metadata, the tree structure of commands and text
+ * components made of plain strings, localization keys, [applied arguments][ArgsAppliedText] and [Text] lists.
+ * Every other object (handlers, argument types, requirements, required information, metadata values, owners and
+ * other kinds of text components) is stored as a key of [SnapshotBindings].
+ *
+ * Reading a snapshot does not scan command classes: the application binds each handler instance (and the other
+ * objects above) to the same key it had when the snapshot was written, for example
+ * `bindings.bind("warp", WarpHandler())`, and read commands get the bound instances. Binding keys must therefore
+ * be stable between runs, like command paths.
+ *
+ * Snapshots are tagged with a fingerprint of the sources that commands were built from (see [fingerprintOf]),
+ * a snapshot is only read when fingerprint matches. Use [loadOrBuild] to fall back to full construction when
+ * sources changes or when the snapshot cannot be read.
+ */
+object BinaryCommandSnapshot {
+
+    private const val MAGIC = 0x4B574353 // KWCS
+    private const val VERSION = 2
+
+    private const val TEXT_KEY: Byte = 0
+    private const val TEXT_NAME: Byte = 1
+    private const val TEXT_NULL: Byte = 2
+    private const val TEXT_STRING: Byte = 3
+    private const val TEXT_LOCALIZABLE: Byte = 4
+    private const val TEXT_ARGS: Byte = 5
+    private const val TEXT_LIST: Byte = 6
+
+    /**
+     * Reads commands from snapshot in [path] if it exists and matches [fingerprint], otherwise calls
+     * [build] and writes its result to [path]. If commands cannot be stored, the snapshot is not written.
+     *
+     * @return Top level commands and their owners.
+     */
+    @JvmStatic
+    fun loadOrBuild(
+        path: Path,
+        fingerprint: Long,
+        bindings: SnapshotBindings,
+        build: () -> List<Pair<Command, Any>>
+    ): List<Pair<Command, Any>> {
+        this.read(path, fingerprint, bindings)?.let { return it }
+
+        val commands = build()
+
+        try {
+            this.write(path, fingerprint, commands, bindings)
+        } catch (e: IllegalArgumentException) {
+            // Commands with unbound values are not stored
+        } catch (e: IOException) {
+            // Snapshot is only a cache
+        }
+
+        return commands
+    }
+
+    /**
+     * Computes a fingerprint of [parts], such as names of command classes and contents of JSON command files.
+     */
+    @JvmStatic
+    fun fingerprintOf(parts: Iterable<String>): Long {
+        var hash = -0x340d631b7bdddcdbL // FNV-1a 64 offset basis
+
+        parts.forEach { part ->
+            for (c in part) {
+                hash = (hash xor c.toLong()) * 0x100000001b3L
+            }
+
+            hash = (hash xor 0xFFFFL) * 0x100000001b3L
+        }
+
+        return hash
+    }
+
+    /**
+     * Writes top level [commands] (and their sub-commands) to [path].
+     *
+     * @throws IllegalArgumentException If a value required by a command is not bound in [bindings] or if
+     * command has arguments other than [StaticListArguments].
+     */
+    @JvmStatic
+    fun write(path: Path, fingerprint: Long, commands: List<Pair<Command, Any>>, bindings: SnapshotBindings) {
+        val temp = Files.createTempFile(path.toAbsolutePath().parent, path.fileName.toString(), ".tmp")
+
+        try {
+            DataOutputStream(BufferedOutputStream(Files.newOutputStream(temp))).use { out ->
+                val writer = Writer(out, bindings)
+
+                out.writeInt(MAGIC)
+                out.writeInt(VERSION)
+                out.writeLong(fingerprint)
+                out.writeInt(commands.size)
+
+                commands.forEach { (command, owner) ->
+                    writer.key(owner)
+                    writer.command(command)
+                }
+            }
+
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+        } finally {
+            Files.deleteIfExists(temp)
+        }
+    }
+
+    /**
+     * Reads top level commands (and their sub-commands) from memory-mapped [path].
+     *
+     * @return Commands and their owners, or `null` if file does not exists, does not match [fingerprint],
+     * is corrupt or references keys that are not bound in [bindings].
+     */
+    @JvmStatic
+    fun read(path: Path, fingerprint: Long, bindings: SnapshotBindings): List<Pair<Command, Any>>? {
+        if (!Files.isRegularFile(path))
+            return null
+
+        return try {
+            FileChannel.open(path, StandardOpenOption.READ).use { channel ->
+                val buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+
+                if (buffer.remaining() < 16
+                        || buffer.int != MAGIC
+                        || buffer.int != VERSION
+                        || buffer.long != fingerprint)
+                    return null
+
+                val reader = Reader(buffer, bindings)
+
+                List(reader.count()) {
+                    val owner = reader.value<Any>()
+                    reader.command(null) to owner
+                }
+            }
+        } catch (e: UnboundKeyException) {
+            null
+        } catch (e: CorruptSnapshotException) {
+            null
+        } catch (e: BufferUnderflowException) {
+            null
+        } catch (e: ClassCastException) {
+            null
+        } catch (e: IndexOutOfBoundsException) {
+            null
+        } catch (e: NegativeArraySizeException) {
+            null
+        } catch (e: IOException) {
+            null
+        }
+    }
+
+    private class Writer(val out: DataOutputStream, val bindings: SnapshotBindings) {
+
+        fun command(command: Command) {
+            val arguments = command.arguments as? StaticListArguments
+                    ?: throw IllegalArgumentException("Arguments of command $command cannot be stored.")
+
+            this.string(command.name)
+            this.out.writeInt(command.order)
+            this.strings(command.alias)
+            this.text(command.nameComponent, command.name)
+            this.nullableText(command.aliasComponent)
+            this.text(command.description)
+            this.nullableKey(command.handler)
+
+            this.out.writeInt(arguments.argumentList.size)
+            arguments.argumentList.forEach { this.argument(it) }
+
+            this.keys(command.requirements)
+            this.keys(command.requiredInfo)
+
+            this.out.writeInt(command.metadata.size)
+            command.metadata.forEach { (key, value) ->
+                this.string(key)
+                this.key(value)
+            }
+
+            val subCommands = command.subCommands
+            this.out.writeInt(subCommands.size)
+            subCommands.forEach { this.command(it) }
+        }
+
+        fun argument(argument: Argument<*>) {
+            this.string(argument.name)
+            this.text(argument.nameComponent, argument.name)
+            this.strings(argument.alias)
+            this.nullableText(argument.aliasComponent)
+            this.text(argument.description)
+            this.out.writeBoolean(argument.isOptional)
+            this.key(argument.argumentType)
+            this.keys(argument.requirements)
+            this.keys(argument.requiredInfo)
+            this.nullableKey(argument.handler)
+        }
+
+        fun text(text: TextComponent, name: String) {
+            if (text == Text.of(name)) this.out.writeByte(TEXT_NAME.toInt())
+            else this.text(text)
+        }
+
+        fun nullableText(text: TextComponent?) {
+            if (text == null) this.out.writeByte(TEXT_NULL.toInt())
+            else this.text(text)
+        }
+
+        fun text(text: TextComponent) {
+            when (text) {
+                is StringComponent -> {
+                    this.out.writeByte(TEXT_STRING.toInt())
+                    this.string(text.text)
+                }
+                is LocalizableComponent -> {
+                    this.out.writeByte(TEXT_LOCALIZABLE.toInt())
+                    this.string(text.localization)
+                }
+                is ArgsAppliedText -> {
+                    this.out.writeByte(TEXT_ARGS.toInt())
+                    this.text(text.component)
+                    this.out.writeInt(text.args.size)
+                    text.args.forEach { (name, value) ->
+                        this.string(name)
+                        this.text(value)
+                    }
+                }
+                is Text -> {
+                    this.out.writeByte(TEXT_LIST.toInt())
+                    this.out.writeInt(text.components.size)
+                    text.components.forEach { this.text(it) }
+                }
+                else -> {
+                    this.out.writeByte(TEXT_KEY.toInt())
+                    this.key(text)
+                }
+            }
+        }
+
+        fun keys(values: Collection<Any>) {
+            this.out.writeInt(values.size)
+            values.forEach { this.key(it) }
+        }
+
+        fun key(value: Any) {
+            this.string(this.bindings.keyOf(value)
+                    ?: throw IllegalArgumentException("Value $value is not bound to a key."))
+        }
+
+        fun nullableKey(value: Any?) {
+            if (value == null) this.string(null)
+            else this.key(value)
+        }
+
+        fun strings(values: List<String>) {
+            this.out.writeInt(values.size)
+            values.forEach { this.string(it) }
+        }
+
+        fun string(value: String?) {
+            if (value == null) {
+                this.out.writeInt(-1)
+            } else {
+                val bytes = value.toByteArray(Charsets.UTF_8)
+                this.out.writeInt(bytes.size)
+                this.out.write(bytes)
+            }
+        }
+    }
+
+    private class Reader(val buffer: ByteBuffer, val bindings: SnapshotBindings) {
+
+        fun command(parent: Command?): Command {
+            val name = this.string()
+            val order = this.buffer.int
+            val alias = this.strings()
+            val nameComponent = this.text(name)
+            val aliasComponent = this.nullableText()
+            val description = this.text()
+            val handler = this.nullableValue<Handler>()
+            val arguments = List(this.count()) { this.argument() }
+            val requirements = this.values<Requirement<*, *>>()
+            val requiredInfo = this.values<RequiredInformation>().toSet()
+            val metadata = LinkedHashMap<String, Any>()
+
+            repeat(this.count()) {
+                metadata[this.string()] = this.value()
+            }
+
+            val command = Command(
+                parent = parent,
+                order = order,
+                name = name,
+                nameComponent = nameComponent,
+                alias = alias,
+                aliasComponent = aliasComponent,
+                description = description,
+                handler = handler,
+                arguments = StaticListArguments(arguments),
+                requirements = requirements,
+                requiredInfo = requiredInfo,
+                metadata = metadata
+            )
+
+            command.addSubCommands(List(this.count()) { this.command(command) })
+
+            return command
+        }
+
+        fun argument(): Argument<*> {
+            val name = this.string()
+
+            return Argument<Any?>(
+                name = name,
+                nameComponent = this.text(name),
+                alias = this.strings(),
+                aliasComponent = this.nullableText(),
+                description = this.text(),
+                isOptional = this.buffer.get() != 0.toByte(),
+                argumentType = this.value<ArgumentType<*, Any?>>(),
+                requirements = this.values(),
+                requiredInfo = this.values<RequiredInformation>().toSet(),
+                handler = this.nullableValue<ArgumentHandler<Any?>>()
+            )
+        }
+
+        fun text(name: String): TextComponent =
+            if (this.buffer.get(this.buffer.position()) == TEXT_NAME) {
+                this.buffer.get()
+                Text.of(name)
+            } else {
+                this.text()
+            }
+
+        fun nullableText(): TextComponent? =
+            if (this.buffer.get(this.buffer.position()) == TEXT_NULL) {
+                this.buffer.get()
+                null
+            } else {
+                this.text()
+            }
+
+        fun text(): TextComponent =
+            when (this.buffer.get()) {
+                TEXT_STRING -> Text.single(this.string())
+                TEXT_LOCALIZABLE -> Text.localizable(this.string())
+                TEXT_ARGS -> {
+                    val component = this.text()
+                    val args = LinkedHashMap<String, TextComponent>()
+
+                    repeat(this.count()) {
+                        args[this.string()] = this.text()
+                    }
+
+                    ArgsAppliedText(component, args)
+                }
+                TEXT_LIST -> Text.of(*Array<Any>(this.count()) { this.text() })
+                TEXT_KEY -> this.value()
+                else -> throw CorruptSnapshotException()
+            }
+
+        fun <T> values(): List<T> = List(this.count()) { this.value<T>() }
+
+        @Suppress("UNCHECKED_CAST")
+        fun <T> value(): T {
+            val key = this.string()
+
+            return this.bindings.valueOf(key) as T? ?: throw UnboundKeyException(key)
+        }
+
+        fun <T> nullableValue(): T? {
+            if (this.buffer.getInt(this.buffer.position()) == -1) {
+                this.buffer.int
+                return null
+            }
+
+            return this.value<T>()
+        }
+
+        fun strings(): List<String> = List(this.count()) { this.string() }
+
+        fun string(): String {
+            val size = this.count()
+            val bytes = ByteArray(size)
+            this.buffer.get(bytes)
+
+            return String(bytes, Charsets.UTF_8)
+        }
+
+        /**
+         * Reads a size or an amount of elements. Every element takes at least one byte, so values larger than
+         * remaining bytes are rejected before anything is allocated for them.
+         */
+        fun count(): Int {
+            val count = this.buffer.int
+
+            if (count < 0 || count > this.buffer.remaining())
+                throw CorruptSnapshotException()
+
+            return count
+        }
+    }
+
+    private class UnboundKeyException(key: String) : RuntimeException(key, null, false, false)
+
+    private class CorruptSnapshotException : RuntimeException(null, null, false, false)
+}
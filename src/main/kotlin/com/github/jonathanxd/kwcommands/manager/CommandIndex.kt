@@ -0,0 +1,177 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.manager
+
+import com.github.jonathanxd.iutils.kt.get
+import com.github.jonathanxd.iutils.localization.Locale
+import com.github.jonathanxd.iutils.text.localizer.Localizer
+import com.github.jonathanxd.iutils.text.localizer.TextLocalizer
+import com.github.jonathanxd.kwcommands.command.Command
+import com.github.jonathanxd.kwcommands.util.localizeMulti
+import java.util.WeakHashMap
+
+/**
+ * Index of commands by [name][Command.name], [alias][Command.alias] and localized names.
+ *
+ * Commands are kept in the order they were added, so lookups resolve to the same command that a
+ * sequential scan over added commands would resolve to.
+ *
+ * Localized names are indexed lazily for each [TextLocalizer] and are indexed again when the
+ * [locale][TextLocalizer.getLocale] of the localizer changes. Other [Localizer] implementations
+ * are resolved by scanning all entries.
+ *
+ * Once no more entries are added or removed, the index can be safely read by many threads.
+ */
+internal class CommandIndex {
+
+    private val entries = mutableListOf<Entry>()
+    private val names = HashMap<String, MutableList<Entry>>()
+    private val aliases = HashMap<String, MutableList<Entry>>()
+    private val localized = WeakHashMap<TextLocalizer, LocalizedNames>()
+    private var ordinal = 0
+
+    /**
+     * Adds [command] linked to [owner] to the index.
+     */
+    fun add(command: Command, owner: Any) {
+        val entry = Entry(command, owner, this.ordinal++)
+
+        this.entries += entry
+        this.names.getOrPut(command.name) { mutableListOf() } += entry
+
+        command.alias.forEach {
+            this.aliases.getOrPut(it) { mutableListOf() } += entry
+        }
+
+        synchronized(this.localized) { this.localized.clear() }
+    }
+
+    /**
+     * Removes all entries that matches [predicate].
+     */
+    fun removeIf(predicate: (command: Command, owner: Any) -> Boolean): Boolean {
+        val removed = this.entries.removeIf {
+            if (predicate(it.command, it.owner)) {
+                this.names.removeEntry(it.command.name, it)
+                it.command.alias.forEach { alias -> this.aliases.removeEntry(alias, it) }
+                true
+            } else false
+        }
+
+        if (removed)
+            synchronized(this.localized) { this.localized.clear() }
+
+        return removed
+    }
+
+    /**
+     * Returns true if [command] is indexed with [owner] (or with any owner if [owner] is null).
+     */
+    fun contains(command: Command, owner: Any?): Boolean =
+        this.names[command.name]?.any { it.command == command && (owner == null || it.owner == owner) } == true
+
+    /**
+     * Clears localized name index, forcing localized names to be resolved again.
+     */
+    fun clearLocalized() {
+        synchronized(this.localized) { this.localized.clear() }
+    }
+
+    /**
+     * Finds first command that matches [name] and is linked to [owner] (or to any owner if [owner] is null).
+     *
+     * Aliases and localized names are only matched when a [localizer] is provided.
+     */
+    fun find(name: String, owner: Any?, localizer: Localizer?): Command? {
+        var found = this.names[name].firstOf(owner)
+
+        if (localizer != null) {
+            found = earliest(found, this.aliases[name].firstOf(owner))
+
+            found = if (localizer is TextLocalizer)
+                earliest(found, this.localizedNames(localizer)[name].firstOf(owner))
+            else
+                earliest(found, this.entries.firstOrNull {
+                    (owner == null || it.owner == owner) && it.localizedNames(localizer).any { n -> n == name }
+                })
+        }
+
+        return found?.command
+    }
+
+    private fun localizedNames(localizer: TextLocalizer): Map<String, List<Entry>> {
+        val locale = localizer.locale
+        val cached = synchronized(this.localized) { this.localized[localizer] }
+
+        if (cached != null && cached.locale === locale)
+            return cached.names
+
+        val names = HashMap<String, MutableList<Entry>>()
+
+        this.entries.forEach { entry ->
+            entry.localizedNames(localizer).forEach {
+                val list = names.getOrPut(it) { mutableListOf() }
+
+                if (list.lastOrNull() !== entry)
+                    list += entry
+            }
+        }
+
+        synchronized(this.localized) {
+            this.localized[localizer] = LocalizedNames(locale, names)
+        }
+
+        return names
+    }
+
+    private fun Entry.localizedNames(localizer: Localizer): List<String> =
+        listOf(localizer[this.command.nameComponent]) +
+                this.command.aliasComponent?.localizeMulti(localizer).orEmpty()
+
+    private fun List<Entry>?.firstOf(owner: Any?): Entry? =
+        this?.firstOrNull { owner == null || it.owner == owner }
+
+    private fun earliest(first: Entry?, second: Entry?): Entry? =
+        if (first == null || (second != null && second.ordinal < first.ordinal)) second else first
+
+    private fun HashMap<String, MutableList<Entry>>.removeEntry(key: String, entry: Entry) {
+        val list = this[key] ?: return
+
+        list.remove(entry)
+
+        if (list.isEmpty())
+            this.remove(key)
+    }
+
+    private class Entry(val command: Command, val owner: Any, val ordinal: Int)
+
+    private class LocalizedNames(
+        val locale: Locale?,
+        val names: Map<String, List<Entry>>
+    )
+}
@@ -29,6 +29,7 @@ package com.github.jonathanxd.kwcommands.manager
 
 import com.github.jonathanxd.iutils.text.localizer.Localizer
 import com.github.jonathanxd.kwcommands.command.Command
+import com.github.jonathanxd.kwcommands.util.NameIndex
 
 /**
  * Manages and register commands. Only top-level commands can be registered.
@@ -88,6 +89,32 @@ interface CommandManager {
      */
     fun isRegistered(command: Command, owner: Any? = null): Boolean
 
+    /**
+     * Gets a manager that keeps resolving the commands registered at the time of this call, even if
+     * commands are registered or unregistered later. Parsers take a snapshot before parsing a command string.
+     *
+     * Managers that cannot take snapshots returns themselves.
+     *
+     * @see ConcurrentCommandManager
+     */
+    fun snapshot(): CommandManager = this
+
+    /**
+     * Stamp of registered commands, changes every time commands are registered or unregistered in this manager
+     * (sub-commands registered directly in [Command] are not tracked).
+     *
+     * Managers that does not track modifications returns `-1`, parse results of those managers are
+     * never [cached][com.github.jonathanxd.kwcommands.parser.ParseCache].
+     */
+    val modificationStamp: Long
+        get() = -1L
+
+    /**
+     * Gets index of names, aliases and localized names (if [localizer] is provided) of [registeredCommands].
+     */
+    fun getNameIndex(localizer: Localizer?): NameIndex<Command> =
+        NameIndex.create(this.registeredCommands, localizer)
+
     /**
      * Searches for a command with name [name], this method recursively searches for this command.
      */
@@ -30,23 +30,49 @@ package com.github.jonathanxd.kwcommands.manager
 import com.github.jonathanxd.iutils.collection.view.ViewCollections
 import com.github.jonathanxd.iutils.collection.view.ViewUtils
 import com.github.jonathanxd.iutils.kt.get
-import com.github.jonathanxd.iutils.recursion.Element
-import com.github.jonathanxd.iutils.recursion.ElementUtil
-import com.github.jonathanxd.iutils.recursion.Elements
 import com.github.jonathanxd.iutils.text.localizer.Localizer
 import com.github.jonathanxd.kwcommands.command.Command
 import com.github.jonathanxd.kwcommands.exception.NoCommandException
 import com.github.jonathanxd.kwcommands.util.allSubCommandsTo
+import com.github.jonathanxd.kwcommands.util.NameIndex
+import com.github.jonathanxd.kwcommands.util.NameIndexCache
 import com.github.jonathanxd.kwcommands.util.localizeMulti
+import java.util.LinkedList
 import java.util.function.Function
 
 /**
  * Command manager implementation.
+ *
+ * Commands are indexed by name, alias and localized names, so lookups does not need to scan all registered commands.
  */
 class CommandManagerImpl : CommandManager {
 
     private val commands = mutableSetOf<RegisteredCommand>()
 
+    /**
+     * Index of top level commands.
+     */
+    private val index = CommandIndex()
+
+    /**
+     * Index of all commands (including sub commands), lazily built for [findCommand].
+     */
+    private var treeIndex: CommandIndex? = null
+
+    /**
+     * Sum of [tree stamps][Command.treeStamp] of registered commands when [treeIndex] was built.
+     */
+    private var treeIndexStamp = -1L
+
+    @Volatile
+    override var modificationStamp = 0L
+        private set
+
+    /**
+     * Name index of top level commands used for completion.
+     */
+    private val nameIndex = NameIndexCache { NameIndex.create(this.createListWithCommands(), it) }
+
     override val registeredCommands: Set<Command> =
         ViewCollections.setMapped<RegisteredCommand, Command>(
             this.commands,
@@ -69,7 +95,13 @@ class CommandManagerImpl : CommandManager {
             if (!command.parent.subCommands.contains(command))
                 return command.parent.addSubCommand(command)
         } else {
-            return this.commands.add(RegisteredCommand(command, owner))
+            if (this.commands.add(RegisteredCommand(command, owner))) {
+                this.index.add(command, owner)
+                this.treeIndex = null
+                this.nameIndex.clear()
+                ++this.modificationStamp
+                return true
+            }
         }
 
         return false
@@ -79,33 +111,72 @@ class CommandManagerImpl : CommandManager {
         if (command.parent != null)
             throw IllegalArgumentException("Command $command must be a top level command.")
 
-        return this.commands.removeIf { (owner == null || it.owner == owner) && it.command == command }
+        return this.unregister { cmd, cmdOwner -> (owner == null || cmdOwner == owner) && cmd == command }
     }
 
     override fun unregisterAllCommandsOfOwner(owner: Any): Boolean =
-        commands.removeIf { it.owner == owner }
+        this.unregister { _, cmdOwner -> cmdOwner == owner }
 
+    private fun unregister(predicate: (command: Command, owner: Any) -> Boolean): Boolean {
+        if (!this.commands.removeIf { predicate(it.command, it.owner) })
+            return false
+
+        this.index.removeIf(predicate)
+        this.treeIndex = null
+        this.nameIndex.clear()
+        ++this.modificationStamp
+
+        return true
+    }
 
     override fun isRegistered(command: Command, owner: Any?) =
-        this.commands.any { (owner == null || it.owner == owner) && it.command == command }
+        this.index.contains(command, owner)
+
+    override fun findCommand(name: String, owner: Any?, localizer: Localizer?): Command? =
+        this.getTreeIndex().find(name, owner, localizer)
+
+    override fun getCommand(name: String, owner: Any?, localizer: Localizer?): Command? =
+        this.index.find(name, owner, localizer)
+
+    /**
+     * Invalidates cached localized names of commands. This must be called when localizations of
+     * a locale which is already in use changes.
+     */
+    fun invalidateLocalizedNames() {
+        this.index.clearLocalized()
+        this.treeIndex = null
+        this.nameIndex.clear()
+        ++this.modificationStamp
+    }
+
+    override fun getNameIndex(localizer: Localizer?): NameIndex<Command> =
+        this.nameIndex[localizer]
+
+    private fun getTreeIndex(): CommandIndex {
+        val stamp = this.commands.fold(0L) { stamp, it -> stamp + it.command.treeStamp }
+        val current = this.treeIndex
+
+        if (current != null && this.treeIndexStamp == stamp)
+            return current
+
+        val treeIndex = CommandIndex()
 
-    override fun findCommand(name: String, owner: Any?, localizer: Localizer?): Command? {
         this.commands.forEach {
+            val queue = LinkedList<Command>()
+            queue.add(it.command)
 
-            if (owner == null || it.owner == owner) {
-                it.command.getCommand(name, localizer)?.let {
-                    return it
-                }
+            while (queue.isNotEmpty()) {
+                val command = queue.poll()
+                treeIndex.add(command, it.owner)
+                queue.addAll(command.subCommands)
             }
         }
 
-        return null
-    }
+        this.treeIndex = treeIndex
+        this.treeIndexStamp = stamp
 
-    override fun getCommand(name: String, owner: Any?, localizer: Localizer?): Command? =
-        this.commands.find {
-            (owner == null || it.owner == owner) && it.command.nameMatch(name, localizer)
-        }?.command
+        return treeIndex
+    }
 
     override fun getCommand(path: Array<String>, owner: Any?, localizer: Localizer?): Command =
         path.let {
@@ -147,7 +218,8 @@ class CommandManagerImpl : CommandManager {
         name: String,
         localizer: Localizer?
     ): Command? =
-        command.subCommands.firstOrNull {
+        if (localizer == null) command.getSubCommand(name)
+        else command.subCommands.firstOrNull {
             it.nameMatch(name, localizer)
         }
 
@@ -168,29 +240,6 @@ class CommandManagerImpl : CommandManager {
         return list
     }
 
-    private fun Command.getCommand(name: String, localizer: Localizer?): Command? {
-
-        if (this.nameMatch(name, localizer))
-            return this
-
-        val elements = Elements<Command>().apply {
-            insert(Element(this@getCommand))
-        }
-
-        var command = elements.nextElement()?.value
-
-        while (command != null) {
-            if (command.nameMatch(name, localizer))
-                return command
-
-            elements.insertFromPair(ElementUtil.fromIterable(command.subCommands))
-
-            command = elements.nextElement()?.value
-        }
-
-        return null
-    }
-
     private fun Command.nameMatch(name: String, localizer: Localizer?): Boolean =
         this.name == name
                 || localizer != null
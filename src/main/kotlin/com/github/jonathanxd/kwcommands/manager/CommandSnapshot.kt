@@ -0,0 +1,187 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.manager
+
+import com.github.jonathanxd.iutils.kt.get
+import com.github.jonathanxd.iutils.text.localizer.Localizer
+import com.github.jonathanxd.kwcommands.command.Command
+import com.github.jonathanxd.kwcommands.exception.NoCommandException
+import com.github.jonathanxd.kwcommands.manager.CommandManagerImpl.RegisteredCommand
+import com.github.jonathanxd.kwcommands.util.NameIndex
+import com.github.jonathanxd.kwcommands.util.NameIndexCache
+import com.github.jonathanxd.kwcommands.util.allSubCommandsTo
+import com.github.jonathanxd.kwcommands.util.localizeMulti
+import java.util.Collections
+import java.util.LinkedList
+
+/**
+ * Immutable [CommandManager] holding commands registered at the time the snapshot was taken.
+ *
+ * Registering or unregistering commands through a snapshot is not supported. Indexes of a snapshot are never
+ * modified after the snapshot is created, except by lazily built caches, so a snapshot can be read by many threads
+ * without locking.
+ *
+ * Note that sub-commands are still registered in [Command] itself, so a snapshot only freezes top level commands.
+ * To publish a whole new command tree, create new [Command] instances instead of adding sub-commands to
+ * already published ones.
+ *
+ * @see ConcurrentCommandManager
+ */
+class CommandSnapshot internal constructor(
+    internal val registeredCommandList: List<RegisteredCommand>,
+    override val modificationStamp: Long
+) : CommandManager {
+
+    override val registeredCommands: Set<Command> =
+        Collections.unmodifiableSet(registeredCommandList.mapTo(LinkedHashSet()) { it.command })
+
+    override val commandsWithOwner: Set<Pair<Command, Any>> =
+        Collections.unmodifiableSet(registeredCommandList.mapTo(LinkedHashSet()) { it.command to it.owner })
+
+    private val index = CommandIndex().also { index ->
+        registeredCommandList.forEach { index.add(it.command, it.owner) }
+    }
+
+    private val nameIndex = NameIndexCache { NameIndex.create(this.registeredCommands, it) }
+
+    @Volatile
+    private var treeIndex: TreeIndex? = null
+
+    override fun snapshot(): CommandManager = this
+
+    override fun registerCommand(command: Command, owner: Any): Boolean =
+        throw UnsupportedOperationException("Cannot register commands in a snapshot.")
+
+    override fun unregisterCommand(command: Command, owner: Any?): Boolean =
+        throw UnsupportedOperationException("Cannot unregister commands of a snapshot.")
+
+    override fun unregisterAllCommandsOfOwner(owner: Any): Boolean =
+        throw UnsupportedOperationException("Cannot unregister commands of a snapshot.")
+
+    override fun isRegistered(command: Command, owner: Any?) =
+        this.index.contains(command, owner)
+
+    override fun findCommand(name: String, owner: Any?, localizer: Localizer?): Command? =
+        this.getTreeIndex().find(name, owner, localizer)
+
+    override fun getCommand(name: String, owner: Any?, localizer: Localizer?): Command? =
+        this.index.find(name, owner, localizer)
+
+    override fun getNameIndex(localizer: Localizer?): NameIndex<Command> =
+        this.nameIndex[localizer]
+
+    /**
+     * Gets index of all commands, built again when sub-commands of any registered command tree changes.
+     */
+    private fun getTreeIndex(): CommandIndex {
+        val stamp = this.registeredCommandList.fold(0L) { stamp, it -> stamp + it.command.treeStamp }
+        val current = this.treeIndex
+
+        if (current != null && current.stamp == stamp)
+            return current.index
+
+        val treeIndex = CommandIndex()
+
+        this.registeredCommandList.forEach {
+            val queue = LinkedList<Command>()
+            queue.add(it.command)
+
+            while (queue.isNotEmpty()) {
+                val command = queue.poll()
+                treeIndex.add(command, it.owner)
+                queue.addAll(command.subCommands)
+            }
+        }
+
+        this.treeIndex = TreeIndex(treeIndex, stamp)
+
+        return treeIndex
+    }
+
+    override fun getCommand(path: Array<String>, owner: Any?, localizer: Localizer?): Command {
+        var cmd = this.getCommand(path.first(), owner, localizer)
+                ?: throw NoCommandException("Specified parent command ${path.first()} was not found.")
+
+        for (x in 1 until path.size) {
+            cmd = this.getSubCommand(cmd, path[x], localizer)
+                    ?: throw NoCommandException("Specified parent command ${path[x]} was not found in command $cmd.")
+        }
+
+        return cmd
+    }
+
+    override fun getOptionalCommand(
+        path: Array<String>,
+        owner: Any?,
+        localizer: Localizer?
+    ): Command? =
+        if (path.isEmpty()) null else
+            try {
+                this.getCommand(path, owner, localizer)
+            } catch (c: NoCommandException) {
+                null
+            }
+
+    override fun getOwners(command: Command): Set<Any> =
+        this.registeredCommandList.filter { it.command == command }.mapTo(mutableSetOf()) { it.owner }
+
+    override fun getSubCommand(
+        command: Command,
+        name: String,
+        localizer: Localizer?
+    ): Command? =
+        if (localizer == null) command.getSubCommand(name)
+        else command.subCommands.firstOrNull {
+            it.nameMatch(name, localizer)
+        }
+
+    override fun createCommandsPair(): List<Pair<Command, Any>> =
+        this.registeredCommandList.map { it.command to it.owner }
+
+    override fun createListWithCommands(): List<Command> =
+        this.registeredCommandList.map { it.command }
+
+    override fun createListWithAllCommands(): List<Command> {
+        val list = mutableListOf<Command>()
+
+        this.registeredCommandList.forEach {
+            list.add(it.command)
+            it.command.allSubCommandsTo(list)
+        }
+
+        return list
+    }
+
+    private fun Command.nameMatch(name: String, localizer: Localizer): Boolean =
+        this.name == name
+                || this.alias.any { it == name }
+                || localizer[this.nameComponent] == name
+                || this.aliasComponent?.localizeMulti(localizer)?.any { it == name } == true
+
+    private class TreeIndex(val index: CommandIndex, val stamp: Long)
+}
@@ -0,0 +1,215 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.manager
+
+import com.github.jonathanxd.iutils.text.localizer.Localizer
+import com.github.jonathanxd.kwcommands.command.Command
+import com.github.jonathanxd.kwcommands.manager.CommandManagerImpl.RegisteredCommand
+import com.github.jonathanxd.kwcommands.util.NameIndex
+import java.util.concurrent.atomic.AtomicReference
+
+/**
+ * Thread-safe [CommandManager].
+ *
+ * Registered commands are kept in an immutable [CommandSnapshot] which is replaced on every
+ * registration or unregistration (copy-on-write), so lookups, parsing and completion never lock and never
+ * see a partially registered command tree, while writes are serialized and cost a copy of top level commands.
+ *
+ * Whole command trees can be replaced at once with [reload] and [replaceAll], parsers that already
+ * took a [snapshot] keeps using the old commands until they finish.
+ *
+ * This manager resolves commands in the same way as [CommandManagerImpl].
+ */
+class ConcurrentCommandManager : CommandManager {
+
+    private val snapshot = AtomicReference(CommandSnapshot(emptyList(), 0L))
+
+    /**
+     * Lock of snapshot writers.
+     */
+    private val writeLock = Any()
+
+    override val registeredCommands: Set<Command>
+        get() = this.snapshot.get().registeredCommands
+
+    override val commandsWithOwner: Set<Pair<Command, Any>>
+        get() = this.snapshot.get().commandsWithOwner
+
+    /**
+     * Current snapshot of registered commands.
+     */
+    override fun snapshot(): CommandSnapshot = this.snapshot.get()
+
+    override val modificationStamp: Long
+        get() = this.snapshot.get().modificationStamp
+
+    override fun registerCommand(command: Command, owner: Any): Boolean {
+        if (command.parent != null) {
+            if (!command.parent.subCommands.contains(command))
+                return command.parent.addSubCommand(command)
+
+            return false
+        }
+
+        val registered = RegisteredCommand(command, owner)
+
+        return this.update { registeredCommands ->
+            if (registered in registeredCommands) null
+            else registeredCommands + registered
+        }
+    }
+
+    override fun unregisterCommand(command: Command, owner: Any?): Boolean {
+        if (command.parent != null)
+            throw IllegalArgumentException("Command $command must be a top level command.")
+
+        return this.unregister { cmd, cmdOwner -> (owner == null || cmdOwner == owner) && cmd == command }
+    }
+
+    override fun unregisterAllCommandsOfOwner(owner: Any): Boolean =
+        this.unregister { _, cmdOwner -> cmdOwner == owner }
+
+    private fun unregister(predicate: (command: Command, owner: Any) -> Boolean): Boolean =
+        this.update { registeredCommands ->
+            val remaining = registeredCommands.filterNot { predicate(it.command, it.owner) }
+
+            if (remaining.size == registeredCommands.size) null
+            else remaining
+        }
+
+    /**
+     * Replaces all commands of [owner] with commands registered by [registerFunction] in one step.
+     *
+     * [registerFunction] registers commands in a new [CommandManagerImpl] that is not visible to anyone else,
+     * so it can be used with [ReflectionEnvironment][com.github.jonathanxd.kwcommands.reflect.env.ReflectionEnvironment]
+     * and JSON parsers to build a fresh command tree. Nothing is published if [registerFunction] throws.
+     *
+     * @return Snapshot published by this operation.
+     */
+    fun reload(owner: Any, registerFunction: (manager: CommandManager) -> Unit): CommandSnapshot {
+        val staging = CommandManagerImpl()
+
+        registerFunction(staging)
+
+        val commands = staging.createCommandsPair().map { (command, cmdOwner) -> RegisteredCommand(command, cmdOwner) }
+
+        return this.publish { registeredCommands ->
+            registeredCommands.filter { it.owner != owner && it !in commands } + commands
+        }
+    }
+
+    /**
+     * Replaces all registered commands with top level [commands] in one step.
+     *
+     * @return Snapshot published by this operation.
+     */
+    fun replaceAll(commands: Iterable<Pair<Command, Any>>): CommandSnapshot {
+        val registeredCommands = LinkedHashSet<RegisteredCommand>()
+
+        commands.forEach { (command, owner) ->
+            if (command.parent != null)
+                throw IllegalArgumentException("Command $command must be a top level command.")
+
+            registeredCommands += RegisteredCommand(command, owner)
+        }
+
+        val list = registeredCommands.toList()
+
+        return this.publish { list }
+    }
+
+    /**
+     * Publishes a new snapshot with commands returned by [function], or does nothing if [function] returns null.
+     */
+    private inline fun update(function: (registeredCommands: List<RegisteredCommand>) -> List<RegisteredCommand>?): Boolean =
+        synchronized(this.writeLock) {
+            val current = this.snapshot.get()
+            val registeredCommands = function(current.registeredCommandList) ?: return false
+
+            this.snapshot.set(CommandSnapshot(registeredCommands, current.modificationStamp + 1))
+            return true
+        }
+
+    private inline fun publish(function: (registeredCommands: List<RegisteredCommand>) -> List<RegisteredCommand>): CommandSnapshot =
+        synchronized(this.writeLock) {
+            val current = this.snapshot.get()
+            val snapshot = CommandSnapshot(function(current.registeredCommandList), current.modificationStamp + 1)
+
+            this.snapshot.set(snapshot)
+            return snapshot
+        }
+
+    /**
+     * Invalidates cached localized names of commands. This must be called when localizations of
+     * a locale which is already in use changes.
+     */
+    fun invalidateLocalizedNames() {
+        this.update { it }
+    }
+
+    override fun isRegistered(command: Command, owner: Any?) =
+        this.snapshot.get().isRegistered(command, owner)
+
+    override fun findCommand(name: String, owner: Any?, localizer: Localizer?): Command? =
+        this.snapshot.get().findCommand(name, owner, localizer)
+
+    override fun getCommand(name: String, owner: Any?, localizer: Localizer?): Command? =
+        this.snapshot.get().getCommand(name, owner, localizer)
+
+    override fun getNameIndex(localizer: Localizer?): NameIndex<Command> =
+        this.snapshot.get().getNameIndex(localizer)
+
+    override fun getCommand(path: Array<String>, owner: Any?, localizer: Localizer?): Command =
+        this.snapshot.get().getCommand(path, owner, localizer)
+
+    override fun getOptionalCommand(
+        path: Array<String>,
+        owner: Any?,
+        localizer: Localizer?
+    ): Command? =
+        this.snapshot.get().getOptionalCommand(path, owner, localizer)
+
+    override fun getOwners(command: Command): Set<Any> =
+        this.snapshot.get().getOwners(command)
+
+    override fun getSubCommand(
+        command: Command,
+        name: String,
+        localizer: Localizer?
+    ): Command? =
+        this.snapshot.get().getSubCommand(command, name, localizer)
+
+    override fun createCommandsPair(): List<Pair<Command, Any>> =
+        this.snapshot.get().createCommandsPair()
+
+    override fun createListWithCommands(): List<Command> =
+        this.snapshot.get().createListWithCommands()
+
+    override fun createListWithAllCommands(): List<Command> =
+        this.snapshot.get().createListWithAllCommands()
+}
@@ -0,0 +1,68 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.manager
+
+/**
+ * Binds objects that cannot be stored in a [binary command snapshot][BinaryCommandSnapshot], such as
+ * handlers, argument types and requirements, to stable keys. Bound values are looked up by key when a snapshot is
+ * read, so handlers are rebound without scanning command classes.
+ */
+interface SnapshotBindings {
+
+    /**
+     * Gets key of [value], or `null` if [value] is not bound.
+     */
+    fun keyOf(value: Any): String?
+
+    /**
+     * Gets value bound to [key], or `null` if [key] is not bound.
+     */
+    fun valueOf(key: String): Any?
+}
+
+/**
+ * [SnapshotBindings] backed by maps. Values are compared with [equals][Any.equals].
+ */
+class KeyedSnapshotBindings : SnapshotBindings {
+
+    private val values = HashMap<String, Any>()
+    private val keys = HashMap<Any, String>()
+
+    /**
+     * Binds [value] to [key].
+     */
+    fun bind(key: String, value: Any): KeyedSnapshotBindings {
+        this.values.put(key, value)?.let { this.keys.remove(it) }
+        this.keys[value] = key
+        return this
+    }
+
+    override fun keyOf(value: Any): String? = this.keys[value]
+
+    override fun valueOf(key: String): Any? = this.values[key]
+}
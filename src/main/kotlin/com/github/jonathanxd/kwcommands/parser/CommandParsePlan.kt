@@ -0,0 +1,199 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.parser
+
+import com.github.jonathanxd.iutils.kt.get
+import com.github.jonathanxd.iutils.localization.Locale
+import com.github.jonathanxd.iutils.text.localizer.Localizer
+import com.github.jonathanxd.iutils.text.localizer.TextLocalizer
+import com.github.jonathanxd.kwcommands.argument.Argument
+import com.github.jonathanxd.kwcommands.argument.Arguments
+import com.github.jonathanxd.kwcommands.argument.StaticListArguments
+import com.github.jonathanxd.kwcommands.command.Command
+import com.github.jonathanxd.kwcommands.util.localizeMulti
+
+/**
+ * Precomputed data used to parse arguments of a [Command] with [static arguments][StaticListArguments].
+ *
+ * Arguments are referred by its index in [arguments], name tables maps names to indexes of arguments in
+ * ascending order, so the first argument with a name that is not already parsed is found without
+ * scanning all arguments.
+ *
+ * @property arguments Arguments which this plan was created for.
+ * @property argumentList All arguments, in declaration order (positional slots).
+ * @property requiredCount Amount of required arguments.
+ * @property defaults Indexes of optional arguments with a default value.
+ */
+internal class CommandParsePlan private constructor(
+    val arguments: Arguments,
+    val argumentList: List<Argument<*>>
+) {
+    val requiredCount: Int = this.argumentList.count { !it.isOptional }
+    val defaults: IntArray = this.argumentList.indices.filter {
+        this.argumentList[it].isOptional && this.argumentList[it].argumentType.defaultValue != null
+    }.toIntArray()
+
+    private val indexes: Map<Argument<*>, IntArray> =
+        this.argumentList.indices.groupBy { this.argumentList[it] }.mapValues { it.value.toIntArray() }
+
+    private val byName: Map<String, IntArray> =
+        this.argumentList.indexTable { listOf(it.name) }
+
+    private val byShortName: Map<Char, IntArray> =
+        this.argumentList.indexTable { listOfNotNull(it.name.firstOrNull()) }
+
+    private val unlocalized = NameTables(null, this.createTables(null))
+
+    @Volatile
+    private var localized: NameTables? = null
+
+    /**
+     * Gets indexes of all arguments equal to [argument].
+     */
+    fun indexesOf(argument: Argument<*>): IntArray? = this.indexes[argument]
+
+    /**
+     * Gets the index of first argument that is not [parsed] and has [name] as name, alias or localized name,
+     * names are preferred over aliases. Returns -1 if there is no such argument.
+     */
+    fun getByName(name: String, localizer: Localizer?, parsed: BooleanArray): Int =
+        this.find(parsed, localizer, this.byName[name], { it.byOtherName[name] }) { it == name }
+
+    /**
+     * Same as [getByName], but matches the first character of names.
+     */
+    fun getByShortName(name: Char, localizer: Localizer?, parsed: BooleanArray): Int =
+        this.find(parsed, localizer, this.byShortName[name], { it.byOtherShortName[name] }) {
+            it.firstOrNull() == name
+        }
+
+    private inline fun find(
+        parsed: BooleanArray,
+        localizer: Localizer?,
+        names: IntArray?,
+        otherNames: (Tables) -> IntArray?,
+        matcher: (String) -> Boolean
+    ): Int {
+        val byName = names.firstNotParsed(parsed)
+
+        if (byName != -1)
+            return byName
+
+        val tables = this.getTables(localizer)
+
+        if (tables != null)
+            return otherNames(tables).firstNotParsed(parsed)
+
+        return this.argumentList.indices.firstOrNull {
+            !parsed[it] && this.argumentList[it].otherNames(localizer).any(matcher)
+        } ?: -1
+    }
+
+    /**
+     * Gets name tables for [localizer], returns null if tables could not be cached for [localizer].
+     */
+    private fun getTables(localizer: Localizer?): Tables? {
+        if (localizer == null)
+            return this.unlocalized.tables
+
+        if (localizer !is TextLocalizer)
+            return null
+
+        val locale = localizer.locale
+        val cached = this.localized
+
+        if (cached != null && cached.localizer === localizer && cached.locale === locale)
+            return cached.tables
+
+        return this.createTables(localizer).also {
+            this.localized = NameTables(localizer, it, locale)
+        }
+    }
+
+    private fun createTables(localizer: Localizer?): Tables {
+        val byOtherName = this.argumentList.indexTable { it.otherNames(localizer) }
+        val byOtherShortName = this.argumentList.indexTable { arg ->
+            arg.otherNames(localizer).mapNotNull { it.firstOrNull() }
+        }
+
+        return Tables(byOtherName, byOtherShortName)
+    }
+
+    private fun Argument<*>.otherNames(localizer: Localizer?): List<String> =
+        if (localizer == null) this.alias
+        else this.alias + localizer[this.nameComponent] +
+                this.aliasComponent?.localizeMulti(localizer).orEmpty()
+
+    private fun IntArray?.firstNotParsed(parsed: BooleanArray): Int {
+        if (this == null)
+            return -1
+
+        for (i in this) {
+            if (!parsed[i])
+                return i
+        }
+
+        return -1
+    }
+
+    private class Tables(val byOtherName: Map<String, IntArray>, val byOtherShortName: Map<Char, IntArray>)
+
+    private class NameTables(val localizer: TextLocalizer?, val tables: Tables, val locale: Locale? = null)
+
+    companion object {
+        /**
+         * Gets the parse plan of [command], or null if [command] does not have static arguments.
+         *
+         * Plans are stored in the [arguments][StaticListArguments.parsePlan] instance they were created for,
+         * so commands with different arguments never share plans and lookups does not lock.
+         */
+        fun of(command: Command): CommandParsePlan? {
+            val arguments = command.arguments as? StaticListArguments ?: return null
+
+            return arguments.parsePlan
+                ?: CommandParsePlan(arguments, arguments.argumentList.toList()).also {
+                    arguments.parsePlan = it
+                }
+        }
+
+        private inline fun <K> List<Argument<*>>.indexTable(keys: (Argument<*>) -> List<K>): Map<K, IntArray> {
+            val table = mutableMapOf<K, MutableList<Int>>()
+
+            this.forEachIndexed { index, argument ->
+                keys(argument).forEach {
+                    val indexes = table.getOrPut(it) { mutableListOf() }
+
+                    if (indexes.lastOrNull() != index)
+                        indexes += index
+                }
+            }
+
+            return table.mapValues { it.value.toIntArray() }
+        }
+    }
+}
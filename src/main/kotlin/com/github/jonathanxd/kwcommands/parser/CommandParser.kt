@@ -49,6 +49,15 @@ interface CommandParser {
      */
     val options: Options
 
+    /**
+     * Gets a parser with same [options] that resolves commands from [manager], commonly a
+     * [snapshot][CommandManager.snapshot] of [commandManager], so callers can parse and then inspect
+     * the exact commands the input was parsed against.
+     *
+     * Parsers that cannot be bound to another manager returns themselves.
+     */
+    fun withCommandManager(manager: CommandManager): CommandParser = this
+
     /**
      * Process command string.
      *
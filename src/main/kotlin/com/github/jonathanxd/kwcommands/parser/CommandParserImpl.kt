@@ -43,9 +43,36 @@ import com.github.jonathanxd.kwcommands.fail.*
 import com.github.jonathanxd.kwcommands.manager.CommandManager
 import com.github.jonathanxd.kwcommands.util.*
 
-class CommandParserImpl(override val commandManager: CommandManager) : CommandParser {
+private val NO_SHORT_NAMES = charArrayOf()
 
-    override val options: Options = Options()
+class CommandParserImpl private constructor(
+        override val commandManager: CommandManager,
+        override val options: Options
+) : CommandParser {
+
+    constructor(commandManager: CommandManager) : this(commandManager, Options())
+
+    override fun withCommandManager(manager: CommandManager): CommandParserImpl =
+            if (manager === this.commandManager) this else CommandParserImpl(manager, this.options)
+
+    override fun parse(commandString: String, owner: Any?): Either<ParseFail, List<CommandContainer>> =
+            this.parse(commandString, owner, null)
+
+    override fun parse(
+            commandString: String,
+            owner: Any?,
+            localizer: Localizer?
+    ): Either<ParseFail, List<CommandContainer>> {
+        val cache = this.options[ParserOptions.PARSE_CACHE]
+                ?: return this.parseWithOwnerFunction(commandString, { owner }, localizer)
+
+        val snapshot = this.commandManager.snapshot()
+        val parser = this.withCommandManager(snapshot)
+
+        return cache.get(commandString, owner, localizer, snapshot) {
+            parser.parseWithOwnerFunction(commandString, { owner }, localizer)
+        }
+    }
 
     override fun parseWithOwnerFunction(
             commandString: String,
@@ -59,6 +86,13 @@ class CommandParserImpl(override val commandManager: CommandManager) : CommandPa
             ownerProvider: OwnerProvider,
             localizer: Localizer?
     ): Either<ParseFail, List<CommandContainer>> {
+        val snapshot = this.commandManager.snapshot()
+
+        // Whole command string is parsed against the same commands, even if commands are replaced meanwhile.
+        if (snapshot !== this.commandManager)
+            return this.withCommandManager(snapshot)
+                    .parseWithOwnerFunction(commandIter, ownerProvider, localizer)
+
         val inputs = this.parseInputs(commandIter)
 
         return this.parse(
@@ -74,14 +108,13 @@ class CommandParserImpl(override val commandManager: CommandManager) : CommandPa
 
     private fun parseInputs(commandsIterator: SourcedCharIterator): List<Either<InputParseFail, Input>> {
         val inputs = mutableListOf<Either<InputParseFail, Input>>()
+        val token = InputTokenizer.Token()
 
         while (commandsIterator.hasNext()) {
-            val parse = commandsIterator.parseSingleInput(parseData = true)
-
-            if (parse.isLeft)
-                inputs += left(parse.left)
+            if (InputTokenizer.DEFAULT.tokenize(commandsIterator, parseData = true, token = token))
+                inputs += right(token.input!!)
             else
-                inputs += right(parse.right)
+                inputs += left(token.fail!!)
         }
 
         return inputs
@@ -174,7 +207,7 @@ class CommandParserImpl(override val commandManager: CommandManager) : CommandPa
             return right(false)
         }
 
-        if (commandInput.content == "&") {
+        if (commandInput.contentEquals("&")) {
             val remain = last.arguments.getRemainingArguments()
             if (remain.isNotEmpty())
                 return leftBooleanObj(
@@ -224,11 +257,17 @@ class CommandParserImpl(override val commandManager: CommandManager) : CommandPa
             parsedCommands: List<CommandContainer>,
             localizer: Localizer?
     ): Either<ParseFail, List<ArgumentContainer<*>>> {
-        if (command.arguments.getRemainingArguments().isEmpty()) {
+        val plan =
+                if (this.options[ParserOptions.COMPILED_COMMANDS]) CommandParsePlan.of(command)
+                else null
+
+        if (plan?.argumentList?.isEmpty() ?: command.arguments.getRemainingArguments().isEmpty()) {
             return right(emptyList())
         }
 
-        val parsing = ArgumentParsing(command.arguments, localizer)
+        val parsing =
+                if (plan != null) PlannedArgumentParsing(plan, localizer)
+                else DefaultArgumentParsing(command.arguments, localizer)
         val args = parsing.argumentList
 
         var currentRequired = 0
@@ -237,8 +276,10 @@ class CommandParserImpl(override val commandManager: CommandManager) : CommandPa
             val state = inputsIter.pos
             val get = inputsIter.next()
 
-            val input = (get.rightOrNull() as? SingleInput)?.input
-            val shortName = input?.getShortNames()
+            val singleInput = get.rightOrNull() as? SingleInput
+            // Only names needs the input string
+            val input = if (singleInput?.inputStartsWith("-") == true) singleInput.input else null
+            val shortName = if (input != null) input.getShortNames() else singleInput?.let { NO_SHORT_NAMES }
             val name = input?.getArgumentNameOrNull()
             val isAssignment = if (name != null) input.isAssignmentArg() else false
 
@@ -361,15 +402,14 @@ class CommandParserImpl(override val commandManager: CommandManager) : CommandPa
             }
         }
 
-        val commandArgumentsList = command.arguments.getRemainingArguments(args)
-        val required = commandArgumentsList.count { !it.isOptional }
+        val required = parsing.getRemainingRequired()
 
         if (required != 0) {
             return left(
                     createFailAME(
                             command,
                             args,
-                            commandArgumentsList,
+                            parsing.getRemainingArguments(),
                             parsedCommands,
                             source,
                             inputsIter
@@ -377,11 +417,7 @@ class CommandParserImpl(override val commandManager: CommandManager) : CommandPa
             )
         }
 
-        commandArgumentsList.filter { a ->
-            args.none { it.argument == a }
-                    && a.isOptional
-                    && a.argumentType.defaultValue != null
-        }.forEach {
+        parsing.getRemainingDefaults().forEach {
             @Suppress("UNCHECKED_CAST")
             args += ArgumentContainer(
                     it,
@@ -412,7 +448,7 @@ class CommandParserImpl(override val commandManager: CommandManager) : CommandPa
         val peek = inputsIter.next()
         val right = peek.rightOrNull() as? SingleInput
 
-        val fill = (right == null || right.input.isName()) && isBoolean
+        val fill = (right == null || right.inputStartsWith("-")) && isBoolean
 
         val next = when {
             fill -> SingleInput("true", source, 0, 0)
@@ -1019,63 +1055,139 @@ class CommandParserImpl(override val commandManager: CommandManager) : CommandPa
             MutableList<ArgumentContainer<*>> by origin {
         override fun add(element: ArgumentContainer<*>): Boolean {
             val r = this.origin.add(element)
-            this.parsing.reset()
+            this.parsing.added(listOf(element))
             return r
         }
 
         override fun addAll(elements: Collection<ArgumentContainer<*>>): Boolean {
             val r = this.origin.addAll(elements)
-            this.parsing.reset()
+            this.parsing.added(elements)
             return r
         }
 
         override fun add(index: Int, element: ArgumentContainer<*>) {
             this.origin.add(index, element)
-            this.parsing.reset()
+            this.parsing.added(listOf(element))
         }
 
         override fun addAll(index: Int, elements: Collection<ArgumentContainer<*>>): Boolean {
             val r = this.origin.addAll(index, elements)
-            this.parsing.reset()
+            this.parsing.added(elements)
             return r
         }
     }
 
-    private class ArgumentParsing(val arguments: Arguments, val localizer: Localizer?) {
-        private val argumentList_ = mutableListOf<ArgumentContainer<*>>()
+    private abstract class ArgumentParsing(val localizer: Localizer?) {
+        protected val argumentList_ = mutableListOf<ArgumentContainer<*>>()
         val argumentList = ParsingBackedList(this, argumentList_)
 
+        abstract fun hasNext(): Boolean
+
+        abstract fun next(): Argument<*>
+
+        /**
+         * Called when [containers] are added to [argumentList].
+         */
+        abstract fun added(containers: Collection<ArgumentContainer<*>>)
+
+        abstract fun getByName(name: String): Argument<*>?
+
+        abstract fun getByShortName(name: Char): Argument<*>?
+
+        abstract fun getRemainingArguments(): List<Argument<*>>
+
+        open fun getRemainingRequired(): Int =
+                this.getRemainingArguments().count { !it.isOptional }
+
+        open fun getRemainingDefaults(): List<Argument<*>> =
+                this.getRemainingArguments().filter { it.isOptional && it.argumentType.defaultValue != null }
+    }
+
+    private class DefaultArgumentParsing(val arguments: Arguments, localizer: Localizer?) :
+            ArgumentParsing(localizer) {
         private var pos = 0
         private var args: List<Argument<*>> = this.arguments.getRemainingArguments()
 
-        fun hasNext(): Boolean {
+        override fun hasNext(): Boolean {
             return args.isNotEmpty() && pos < args.size
         }
 
-        fun next(): Argument<*> {
+        override fun next(): Argument<*> {
             val arg = args[pos]
             ++pos
             return arg
         }
 
-        internal fun reset() {
+        override fun added(containers: Collection<ArgumentContainer<*>>) {
             args = this.arguments.getRemainingArguments(this.argumentList_)
             pos = 0
         }
 
-        fun addContainer(container: ArgumentContainer<*>): Boolean {
-            val add = this.argumentList_.add(container)
-            this.reset()
-            return add
+        override fun getByName(name: String): Argument<*>? =
+                this.args.firstWithName(name, this.localizer)
+
+        override fun getByShortName(name: Char): Argument<*>? =
+                this.args.firstNameMatches(this.localizer) { it[0] == name }
+
+        override fun getRemainingArguments(): List<Argument<*>> =
+                this.arguments.getRemainingArguments(this.argumentList_)
+
+    }
+
+    /**
+     * Parses arguments using a [CommandParsePlan]. Parsed arguments are tracked by
+     * index instead of computing remaining arguments after each parsed argument.
+     */
+    private class PlannedArgumentParsing(val plan: CommandParsePlan, localizer: Localizer?) :
+            ArgumentParsing(localizer) {
+        private val all = this.plan.argumentList
+        private val parsed = BooleanArray(this.all.size)
+        private var remainingRequired = this.plan.requiredCount
+        private var pos = 0
+
+        override fun hasNext(): Boolean {
+            while (pos < all.size && parsed[pos])
+                ++pos
+
+            return pos < all.size
         }
 
-        fun getByName(name: String): Argument<*>? =
-                this.args.firstWithName(name, this.localizer)
+        override fun next(): Argument<*> {
+            if (!this.hasNext())
+                throw NoSuchElementException()
+
+            return all[pos++]
+        }
 
+        override fun added(containers: Collection<ArgumentContainer<*>>) {
+            containers.forEach { container ->
+                this.plan.indexesOf(container.argument)?.forEach {
+                    if (!parsed[it]) {
+                        parsed[it] = true
 
-        fun getByShortName(name: Char): Argument<*>? =
-                this.args.firstNameMatches(this.localizer) { it[0] == name }
+                        if (!all[it].isOptional)
+                            --remainingRequired
+                    }
+                }
+            }
+
+            pos = 0
+        }
+
+        override fun getByName(name: String): Argument<*>? =
+                this.plan.getByName(name, this.localizer, this.parsed).let { if (it == -1) null else all[it] }
+
+        override fun getByShortName(name: Char): Argument<*>? =
+                this.plan.getByShortName(name, this.localizer, this.parsed).let { if (it == -1) null else all[it] }
+
+        override fun getRemainingArguments(): List<Argument<*>> =
+                all.filterIndexed { index, _ -> !parsed[index] }
+
+        override fun getRemainingRequired(): Int =
+                this.remainingRequired
 
+        override fun getRemainingDefaults(): List<Argument<*>> =
+                this.plan.defaults.filter { !parsed[it] }.map { all[it] }
     }
 
-}
\ No newline at end of file
+}
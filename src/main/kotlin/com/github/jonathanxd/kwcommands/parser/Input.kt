@@ -45,11 +45,18 @@ sealed class Input {
      */
     val isFromSource get() = (start != 0 || end != 0)
 
-    val content
+    open val content: String
         get() =
             if (!isFromSource) ""
             else this.source.slice(start..end)
 
+    /**
+     * Returns true if [content] is equal to [other], without creating [content] string.
+     */
+    fun contentEquals(other: String): Boolean =
+        if (!isFromSource) other.isEmpty()
+        else end - start + 1 == other.length && this.source.regionMatches(start, other, 0, other.length)
+
     abstract fun toInputString(): String
 
     abstract fun getString(): String
@@ -59,18 +66,114 @@ sealed class Input {
 
 /**
  * Holds a single string input in [source].
+ *
+ * Inputs created with [SingleInput.of] are views of a region of [source], the [input] string is only
+ * created when it is accessed, and [inputEquals], [inputStartsWith], [inputLength] and [inputCharAt]
+ * reads the region directly from [source].
  */
-data class SingleInput(
-    val input: String,
+class SingleInput private constructor(
     override val source: String,
     override val start: Int,
-    override val end: Int
+    override val end: Int,
+    private var input_: String?
 ) : Input() {
 
     override val type: InputType<SingleInput> = SingleInputType
 
+    /**
+     * Whether this input is a region of [source] (from [start] to [end], inclusive).
+     */
+    private val isRegion = this.input_ == null
+
+    private var hash = 0
+
+    constructor(input: String, source: String, start: Int, end: Int) : this(source, start, end, input)
+
     constructor(input: String) : this(input, "", 0, 0)
 
+    /**
+     * Input string.
+     */
+    val input: String
+        get() = this.input_ ?: this.source.substring(this.start, this.end + 1).also { this.input_ = it }
+
+    override val content: String
+        get() = if (this.isRegion && this.isFromSource) this.input else super.content
+
+    /**
+     * Length of [input].
+     */
+    val inputLength: Int
+        get() = this.input_?.length ?: (this.end - this.start + 1)
+
+    /**
+     * Gets the char at [index] of [input].
+     */
+    fun inputCharAt(index: Int): Char =
+        this.input_?.get(index) ?: this.source[this.start + index]
+
+    /**
+     * Returns true if [input] is equal to [other].
+     */
+    @JvmOverloads
+    fun inputEquals(other: String, ignoreCase: Boolean = false): Boolean {
+        val input = this.input_
+
+        return if (input != null) input.equals(other, ignoreCase)
+        else this.inputLength == other.length
+                && this.source.regionMatches(this.start, other, 0, other.length, ignoreCase)
+    }
+
+    /**
+     * Returns true if [input] starts with [prefix].
+     */
+    fun inputStartsWith(prefix: String): Boolean {
+        val input = this.input_
+
+        return if (input != null) input.startsWith(prefix)
+        else this.inputLength >= prefix.length
+                && this.source.regionMatches(this.start, prefix, 0, prefix.length)
+    }
+
+    fun copy(
+        input: String = this.input,
+        source: String = this.source,
+        start: Int = this.start,
+        end: Int = this.end
+    ): SingleInput = SingleInput(input, source, start, end)
+
+    operator fun component1(): String = this.input
+    operator fun component2(): String = this.source
+    operator fun component3(): Int = this.start
+    operator fun component4(): Int = this.end
+
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (other !is SingleInput) return false
+
+        if (this.start != other.start || this.end != other.end || this.source != other.source)
+            return false
+
+        return (this.isRegion && other.isRegion) || this.input == other.input
+    }
+
+    override fun hashCode(): Int {
+        if (this.hash == 0) {
+            var inputHash = 0
+
+            for (i in 0 until this.inputLength)
+                inputHash = 31 * inputHash + this.inputCharAt(i).toInt()
+
+            var result = inputHash
+            result = 31 * result + this.source.hashCode()
+            result = 31 * result + this.start
+            result = 31 * result + this.end
+            this.hash = result
+        }
+
+        return this.hash
+    }
+
     override fun toString(): String =
         "SingleInput(input='$input'" +
                 ", source='$source'" +
@@ -83,6 +186,15 @@ data class SingleInput(
     override fun toInputString(): String = input
 
     override fun getString(): String = input
+
+    companion object {
+        /**
+         * Creates a [SingleInput] of region of [source] from [start] to [end] (inclusive).
+         */
+        @JvmStatic
+        fun of(source: String, start: Int, end: Int): SingleInput =
+            SingleInput(source, start, end, null)
+    }
 }
 
 /**
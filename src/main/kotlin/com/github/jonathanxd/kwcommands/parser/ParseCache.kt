@@ -0,0 +1,230 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.parser
+
+import com.github.jonathanxd.iutils.`object`.Either
+import com.github.jonathanxd.iutils.kt.right
+import com.github.jonathanxd.iutils.text.localizer.Localizer
+import com.github.jonathanxd.iutils.text.localizer.TextLocalizer
+import com.github.jonathanxd.kwcommands.argument.StaticListArguments
+import com.github.jonathanxd.kwcommands.command.Command
+import com.github.jonathanxd.kwcommands.command.CommandContainer
+import com.github.jonathanxd.kwcommands.command.CommandMetadata
+import com.github.jonathanxd.kwcommands.fail.ParseFail
+import com.github.jonathanxd.kwcommands.manager.CommandManager
+import java.util.Collections
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicReference
+import java.util.concurrent.atomic.LongAdder
+
+/**
+ * Bounded, approximately least recently used, cache of successful parse results, keyed by command string, owner,
+ * localizer and [locale][TextLocalizer.getLocale] of localizer. Enabled by setting [ParserOptions.PARSE_CACHE]
+ * of a parser.
+ *
+ * Lookups do not lock: entries are held in a [ConcurrentHashMap] and, when the cache grows past [maximumSize],
+ * the least recently used of a sample of [EVICTION_SAMPLE] entries is evicted.
+ *
+ * All entries are discarded when commands are registered or unregistered in the parsed
+ * [command manager][CommandManager.modificationStamp], or when sub-commands of any registered command tree changes.
+ * Results containing commands with [non-static arguments][StaticListArguments] or with
+ * [CommandMetadata.NO_PARSE_CACHE] are never cached, neither are parse fails.
+ *
+ * The same [CommandContainer] list is returned for every hit, so handlers of cached commands must not mutate
+ * values of arguments.
+ *
+ * @property maximumSize Maximum amount of cached results.
+ */
+class ParseCache @JvmOverloads constructor(val maximumSize: Int = 1024) {
+
+    private val state = AtomicReference(State(null))
+    private val clock = AtomicLong()
+    private val hits = LongAdder()
+    private val misses = LongAdder()
+    private val evictions = LongAdder()
+    private val invalidations = LongAdder()
+
+    init {
+        require(this.maximumSize > 0) { "Maximum size must be positive." }
+    }
+
+    /**
+     * Current statistics of the cache.
+     */
+    val stats: Stats
+        get() = Stats(
+            this.hits.sum(),
+            this.misses.sum(),
+            this.evictions.sum(),
+            this.invalidations.sum(),
+            this.state.get().entries.size
+        )
+
+    /**
+     * Gets cached result of parsing [commandString] against [manager], or calls [parse] and caches the result.
+     *
+     * @param manager Manager that [parse] resolves commands from, a [snapshot][CommandManager.snapshot] should be
+     * used when commands may be registered concurrently.
+     */
+    fun get(
+        commandString: String,
+        owner: Any?,
+        localizer: Localizer?,
+        manager: CommandManager,
+        parse: () -> Either<ParseFail, List<CommandContainer>>
+    ): Either<ParseFail, List<CommandContainer>> {
+        val stamp = manager.modificationStamp
+
+        if (stamp == -1L)
+            return parse()
+
+        // Read before parsing, so results parsed against a modified tree are discarded in the next lookup
+        val state = this.stateOf(Generation(manager, stamp, Command.treeStamp(manager.registeredCommands)))
+        val key = Key(commandString, owner, localizer, (localizer as? TextLocalizer)?.locale)
+        val cached = state.entries[key]
+
+        if (cached != null) {
+            cached.lastAccess = this.clock.incrementAndGet()
+            this.hits.increment()
+            return right(cached.containers)
+        }
+
+        this.misses.increment()
+
+        val result = parse()
+
+        if (result.isRight && result.right.all { it.command.isParseCacheable() }) {
+            val containers = Collections.unmodifiableList(result.right.toList())
+
+            if (this.state.get() === state) {
+                state.entries[key] = Entry(containers, this.clock.incrementAndGet())
+
+                if (state.entries.size > this.maximumSize)
+                    this.evict(state)
+            }
+
+            return right(containers)
+        }
+
+        return result
+    }
+
+    /**
+     * Discards all cached results.
+     */
+    fun invalidate() {
+        while (!this.replace(this.state.get(), State(null))) {
+        }
+    }
+
+    private fun stateOf(generation: Generation): State {
+        while (true) {
+            val current = this.state.get()
+
+            if (current.generation == generation)
+                return current
+
+            val new = State(generation)
+
+            if (this.replace(current, new))
+                return new
+        }
+    }
+
+    private fun replace(current: State, new: State): Boolean =
+        this.state.compareAndSet(current, new).also {
+            if (it && current.entries.isNotEmpty())
+                this.invalidations.increment()
+        }
+
+    private fun evict(state: State) {
+        while (state.entries.size > this.maximumSize) {
+            var eldest: MutableMap.MutableEntry<Key, Entry>? = null
+            var sampled = 0
+
+            for (entry in state.entries.entries) {
+                if (eldest == null || entry.value.lastAccess < eldest.value.lastAccess)
+                    eldest = entry
+
+                if (++sampled == EVICTION_SAMPLE)
+                    break
+            }
+
+            if (eldest == null)
+                return
+
+            if (state.entries.remove(eldest.key, eldest.value))
+                this.evictions.increment()
+        }
+    }
+
+    private fun Command.isParseCacheable() =
+        this.arguments is StaticListArguments && this.metadata[CommandMetadata.NO_PARSE_CACHE] != true
+
+    /**
+     * Statistics of a [ParseCache].
+     *
+     * @property hits Lookups that found a cached result.
+     * @property misses Lookups that did not find a cached result.
+     * @property evictions Results discarded to keep the cache within [maximumSize].
+     * @property invalidations Times that all cached results were discarded because commands changed
+     * or [invalidate] was called.
+     * @property size Current amount of cached results.
+     */
+    data class Stats(
+        val hits: Long,
+        val misses: Long,
+        val evictions: Long,
+        val invalidations: Long,
+        val size: Int
+    )
+
+    private class State(val generation: Generation?) {
+        val entries = ConcurrentHashMap<Key, Entry>()
+    }
+
+    private class Entry(val containers: List<CommandContainer>, @Volatile var lastAccess: Long)
+
+    private data class Key(val commandString: String, val owner: Any?, val localizer: Localizer?, val locale: Any?)
+
+    private class Generation(val manager: CommandManager, val stamp: Long, val treeStamp: Long) {
+        override fun equals(other: Any?): Boolean =
+            other is Generation && other.manager === this.manager
+                    && other.stamp == this.stamp && other.treeStamp == this.treeStamp
+
+        override fun hashCode(): Int = System.identityHashCode(this.manager)
+    }
+
+    companion object {
+        /**
+         * Amount of entries inspected to find the entry to evict.
+         */
+        const val EVICTION_SAMPLE = 8
+    }
+}
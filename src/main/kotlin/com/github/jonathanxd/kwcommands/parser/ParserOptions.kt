@@ -0,0 +1,51 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.parser
+
+import com.github.jonathanxd.iutils.option.Option
+
+/**
+ * Options of [CommandParser]. Options are set in [CommandParser.options].
+ */
+object ParserOptions {
+
+    /**
+     * Parses arguments of commands with [static arguments][com.github.jonathanxd.kwcommands.argument.StaticListArguments]
+     * using a precomputed parse plan with name tables, positional slots and default values of arguments.
+     *
+     * Plans are created once per command and created again when arguments of the command changes.
+     */
+    @JvmField
+    val COMPILED_COMMANDS = Option(false)
+
+    /**
+     * Cache of parse results of [CommandParser.parse], or `null` to not cache parse results. Defaults to `null`.
+     */
+    @JvmField
+    val PARSE_CACHE: Option<ParseCache?> = Option(null)
+}
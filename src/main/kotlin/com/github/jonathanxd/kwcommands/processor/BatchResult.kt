@@ -0,0 +1,272 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.processor
+
+import com.github.jonathanxd.iutils.`object`.Either
+import com.github.jonathanxd.iutils.kt.left
+import com.github.jonathanxd.iutils.kt.right
+import com.github.jonathanxd.iutils.text.localizer.Localizer
+import com.github.jonathanxd.kwcommands.command.CommandContainer
+import com.github.jonathanxd.kwcommands.dispatch.ResultSink
+import com.github.jonathanxd.kwcommands.fail.ParseFail
+import com.github.jonathanxd.kwcommands.information.InformationProviders
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executor
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Order of parse and dispatch of command lines of [CommandProcessor.parseAndDispatchAll].
+ */
+enum class BatchOrder {
+    /**
+     * Each command line is parsed and then dispatched before the next line, in the order they are provided,
+     * in the calling thread. Same as calling [CommandProcessor.parseAndDispatch] for each line.
+     */
+    SEQUENTIAL,
+
+    /**
+     * All command lines are parsed concurrently, and then dispatched one after another, in the order they are
+     * provided, in the calling thread.
+     *
+     * Unlike [SEQUENTIAL], all lines are parsed before any line is dispatched, so a line cannot use commands
+     * registered (or see commands unregistered) by the dispatch of a previous line.
+     */
+    PARSE_AHEAD,
+
+    /**
+     * Command lines are split in chunks of consecutive lines, chunks are handled concurrently and lines
+     * of a chunk are parsed and dispatched in order, like in [SEQUENTIAL].
+     *
+     * Commands of different chunks are dispatched at the same time, so the shared
+     * [information providers][CommandProcessor.parseAndDispatchAll] are read from several threads at once
+     * and must be thread-safe.
+     */
+    CONCURRENT
+}
+
+/**
+ * Results of command lines dispatched by [CommandProcessor.parseAndDispatchAll]. Results of all lines are stored
+ * in a single [list][results], in the order of lines, and results of a line are views of that list.
+ */
+class BatchResult internal constructor(
+    private val fails: Array<ParseFail?>,
+    private val offsets: IntArray,
+    val results: List<CommandResult>
+) {
+
+    /**
+     * Amount of command lines.
+     */
+    val size: Int
+        get() = this.fails.size
+
+    /**
+     * Returns whether command line at [line] index could not be parsed.
+     */
+    fun isFailed(line: Int): Boolean = this.fails[line] != null
+
+    /**
+     * Gets the parse fail of command line at [line] index, or `null` if it was parsed.
+     */
+    fun getFail(line: Int): ParseFail? = this.fails[line]
+
+    /**
+     * Gets results of command line at [line] index (empty if the line could not be parsed).
+     */
+    fun getResults(line: Int): List<CommandResult> =
+        this.results.subList(this.offsets[line], this.offsets[line + 1])
+
+    /**
+     * Gets parse fail or results of command line at [line] index, like the value returned by
+     * [CommandProcessor.parseAndDispatch].
+     */
+    operator fun get(line: Int): Either<ParseFail, List<CommandResult>> =
+        this.fails[line]?.let { left<ParseFail, List<CommandResult>>(it) } ?: right(this.getResults(line))
+
+}
+
+/**
+ * Parses and dispatches [lines] for [CommandProcessor.parseAndDispatchAll].
+ */
+internal class BatchDispatch(
+    private val processor: CommandProcessor,
+    private val lines: List<String>,
+    private val owner: Any?,
+    private val localizer: Localizer?,
+    private val informationProviders: InformationProviders
+) {
+
+    private val fails = arrayOfNulls<ParseFail>(this.lines.size)
+    private val commands = arrayOfNulls<List<CommandContainer>>(this.lines.size)
+
+    fun run(order: BatchOrder, executor: Executor): BatchResult {
+        return when (order) {
+            BatchOrder.SEQUENTIAL -> {
+                val all = Chunk(0, this.lines.size)
+                all.parseAndDispatch()
+
+                this.result(listOf(all))
+            }
+            BatchOrder.PARSE_AHEAD -> {
+                runAll(this.chunks(), executor) { it.parse() }
+
+                val all = Chunk(0, this.lines.size)
+                all.dispatch()
+
+                this.result(listOf(all))
+            }
+            BatchOrder.CONCURRENT -> {
+                val chunks = this.chunks()
+
+                runAll(chunks, executor) { it.parseAndDispatch() }
+
+                this.result(chunks)
+            }
+        }
+    }
+
+    private fun chunks(): List<Chunk> {
+        val size = this.lines.size
+        val count = minOf(size, Runtime.getRuntime().availableProcessors() * 4).coerceAtLeast(1)
+        val chunkSize = (size + count - 1) / count
+
+        return (0 until size step chunkSize.coerceAtLeast(1)).map { Chunk(it, minOf(it + chunkSize, size)) }
+    }
+
+    private fun result(chunks: List<Chunk>): BatchResult {
+        val offsets = IntArray(this.lines.size + 1)
+        val results =
+            if (chunks.size == 1) chunks.single().results
+            else ArrayList<CommandResult>(chunks.sumBy { it.results.size })
+
+        chunks.forEach { chunk ->
+            val base = if (results === chunk.results) 0 else results.size
+
+            for (index in chunk.ends.indices)
+                offsets[chunk.from + index + 1] = base + chunk.ends[index]
+
+            if (results !== chunk.results)
+                results.addAll(chunk.results)
+        }
+
+        return BatchResult(this.fails, offsets, results)
+    }
+
+    private inner class Chunk(val from: Int, val to: Int) : ResultSink {
+        val results = mutableListOf<CommandResult>()
+        val ends = IntArray(this.to - this.from)
+
+        override fun accept(result: CommandResult) {
+            this.results += result
+        }
+
+        fun parse() {
+            for (line in this.from until this.to)
+                this.parse(line)
+        }
+
+        fun dispatch() {
+            for (line in this.from until this.to)
+                this.dispatch(line)
+        }
+
+        fun parseAndDispatch() {
+            for (line in this.from until this.to) {
+                this.parse(line)
+                this.dispatch(line)
+            }
+        }
+
+        private fun parse(line: Int) {
+            val parse =
+                if (localizer == null) processor.parse(lines[line], owner)
+                else processor.parse(lines[line], owner, localizer)
+
+            if (parse.isLeft) fails[line] = parse.left
+            else commands[line] = parse.right
+        }
+
+        private fun dispatch(line: Int) {
+            commands[line]?.let {
+                commands[line] = null
+                processor.dispatch(it, informationProviders, this)
+            }
+
+            this.ends[line - this.from] = this.results.size
+        }
+    }
+
+    companion object {
+        /**
+         * Runs [action] for each chunk of [chunks] and waits all to finish. The first exception thrown by
+         * [action] (in the order of [chunks]) is rethrown.
+         *
+         * Chunks are claimed one at a time by tasks submitted to [executor] and by the calling thread, so the
+         * calling thread only waits for chunks that are already running. Batches therefore complete even when
+         * called from a thread of a bounded [executor] whose other threads are busy.
+         */
+        private fun <T> runAll(chunks: List<T>, executor: Executor, action: (T) -> Unit) {
+            if (chunks.size <= 1) {
+                chunks.forEach(action)
+                return
+            }
+
+            val next = AtomicInteger()
+            val failures = arrayOfNulls<Throwable>(chunks.size)
+            val done = CountDownLatch(chunks.size)
+            val worker = Runnable {
+                while (true) {
+                    val index = next.getAndIncrement()
+
+                    if (index >= chunks.size)
+                        break
+
+                    try {
+                        action(chunks[index])
+                    } catch (e: Throwable) {
+                        failures[index] = e
+                    } finally {
+                        done.countDown()
+                    }
+                }
+            }
+
+            try {
+                repeat(chunks.size - 1) { executor.execute(worker) }
+            } catch (e: RejectedExecutionException) {
+                // Remaining chunks are run by the calling thread
+            }
+
+            worker.run()
+            done.await()
+
+            failures.firstOrNull { it != null }?.let { throw it }
+        }
+    }
+}
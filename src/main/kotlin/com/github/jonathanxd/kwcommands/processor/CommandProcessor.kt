@@ -31,12 +31,16 @@ import com.github.jonathanxd.iutils.`object`.Either
 import com.github.jonathanxd.iutils.text.localizer.Localizer
 import com.github.jonathanxd.kwcommands.command.CommandContainer
 import com.github.jonathanxd.kwcommands.dispatch.CommandDispatcher
+import com.github.jonathanxd.kwcommands.dispatch.DispatcherOptions
+import com.github.jonathanxd.kwcommands.dispatch.ResultSink
 import com.github.jonathanxd.kwcommands.fail.ParseFail
 import com.github.jonathanxd.kwcommands.information.InformationProviders
 import com.github.jonathanxd.kwcommands.information.InformationProvidersVoid
 import com.github.jonathanxd.kwcommands.interceptor.CommandInterceptor
 import com.github.jonathanxd.kwcommands.manager.CommandManager
 import com.github.jonathanxd.kwcommands.parser.CommandParser
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.Executor
 
 interface CommandProcessor {
 
@@ -138,6 +142,42 @@ interface CommandProcessor {
     ): List<CommandResult> =
         this.dispatcher.dispatch(commands, informationProviders)
 
+    /**
+     * Dispatch [commands] sending each [result][CommandResult] to [sink] as soon as it is produced.
+     *
+     * @see CommandDispatcher.dispatch
+     */
+    fun dispatch(
+        commands: List<CommandContainer>,
+        informationProviders: InformationProviders,
+        sink: ResultSink
+    ) {
+        this.dispatcher.dispatch(commands, informationProviders, sink)
+    }
+
+    /**
+     * Asynchronously dispatch [commands].
+     *
+     * @see CommandDispatcher.dispatchAsync
+     */
+    fun dispatchAsync(
+        commands: List<CommandContainer>,
+        informationProviders: InformationProviders = InformationProvidersVoid
+    ): CompletableFuture<List<CommandResult>> =
+        this.dispatcher.dispatchAsync(commands, informationProviders)
+
+    /**
+     * Asynchronously dispatch [commands] in [executor].
+     *
+     * @see CommandDispatcher.dispatchAsync
+     */
+    fun dispatchAsync(
+        commands: List<CommandContainer>,
+        informationProviders: InformationProviders,
+        executor: Executor
+    ): CompletableFuture<List<CommandResult>> =
+        this.dispatcher.dispatchAsync(commands, informationProviders, executor)
+
     /**
      * Calls [parse] and then [dispatch] to dispatch result of [parse].
      */
@@ -146,7 +186,9 @@ interface CommandProcessor {
         owner: Any?,
         informationProviders: InformationProviders = InformationProvidersVoid
     ): Either<ParseFail, List<CommandResult>> =
-        parseAndDispatchWithOwnerFunc(commandString, { owner }, informationProviders)
+        parse(commandString, owner).mapRight {
+            this.dispatch(it, informationProviders)
+        }
 
     /**
      * Calls [parse] and then [dispatch] to dispatch result of [parse].
@@ -157,7 +199,9 @@ interface CommandProcessor {
         informationProviders: InformationProviders = InformationProvidersVoid,
         localizer: Localizer
     ): Either<ParseFail, List<CommandResult>> =
-        parseAndDispatchWithOwnerFunc(commandString, { owner }, informationProviders, localizer)
+        parse(commandString, owner, localizer).mapRight {
+            this.dispatch(it, informationProviders)
+        }
 
     /**
      * Calls [parseWithOwnerFunction] and then [dispatch] to dispatch result of [parse].
@@ -189,4 +233,88 @@ interface CommandProcessor {
                 informationProviders
             )
         }
-}
\ No newline at end of file
+
+    /**
+     * Calls [parse] in current thread and then [dispatchAsync] to asynchronously dispatch result of [parse].
+     */
+    fun parseAndDispatchAsync(
+        commandString: String,
+        owner: Any?,
+        informationProviders: InformationProviders = InformationProvidersVoid
+    ): Either<ParseFail, CompletableFuture<List<CommandResult>>> =
+        parse(commandString, owner).mapRight {
+            this.dispatchAsync(it, informationProviders)
+        }
+
+    /**
+     * Calls [parse] in current thread and then [dispatchAsync] to asynchronously dispatch result of [parse].
+     */
+    fun parseAndDispatchAsync(
+        commandString: String,
+        owner: Any?,
+        informationProviders: InformationProviders = InformationProvidersVoid,
+        localizer: Localizer
+    ): Either<ParseFail, CompletableFuture<List<CommandResult>>> =
+        parse(commandString, owner, localizer).mapRight {
+            this.dispatchAsync(it, informationProviders)
+        }
+
+    /**
+     * Calls [parse] in current thread and then [dispatchAsync] to dispatch result of [parse] in [executor].
+     */
+    fun parseAndDispatchAsync(
+        commandString: String,
+        owner: Any?,
+        informationProviders: InformationProviders,
+        executor: Executor
+    ): Either<ParseFail, CompletableFuture<List<CommandResult>>> =
+        parse(commandString, owner).mapRight {
+            this.dispatchAsync(it, informationProviders, executor)
+        }
+
+    /**
+     * Parses and dispatches each of [commandStrings] as a separate command line, one line after another in the
+     * calling thread ([BatchOrder.SEQUENTIAL]).
+     *
+     * @see parseAndDispatchAll
+     */
+    fun parseAndDispatchAll(
+        commandStrings: Iterable<String>,
+        owner: Any?,
+        informationProviders: InformationProviders = InformationProvidersVoid
+    ): BatchResult =
+        this.parseAndDispatchAll(
+            commandStrings,
+            owner,
+            informationProviders,
+            null,
+            BatchOrder.SEQUENTIAL,
+            this.dispatcher.options[DispatcherOptions.EXECUTOR]
+        )
+
+    /**
+     * Parses and dispatches each of [commandStrings] as a separate command line, like calling [parseAndDispatch]
+     * for each line, but sharing [informationProviders] between all lines and storing results of all lines
+     * in a single [BatchResult].
+     *
+     * @param commandStrings Command lines.
+     * @param owner Owner of commands.
+     * @param informationProviders Information providers shared by all lines, read from several threads at once
+     * if [order] is [BatchOrder.CONCURRENT].
+     * @param localizer Localizer of command names, or `null` to not match localized names.
+     * @param order Order of dispatch of lines.
+     * @param executor Executor to parse (and dispatch if [order] is [BatchOrder.CONCURRENT]) lines in, not used
+     * if [order] is [BatchOrder.SEQUENTIAL]. The calling thread also handles lines, so a bounded executor may be
+     * used even if this method is called from one of its threads. Order independent commands of dispatched lines
+     * run in [DispatcherOptions.INDEPENDENT_COMMANDS_EXECUTOR], not in this executor.
+     */
+    fun parseAndDispatchAll(
+        commandStrings: Iterable<String>,
+        owner: Any?,
+        informationProviders: InformationProviders,
+        localizer: Localizer?,
+        order: BatchOrder,
+        executor: Executor
+    ): BatchResult =
+        BatchDispatch(this, commandStrings.toList(), owner, localizer, informationProviders).run(order, executor)
+}
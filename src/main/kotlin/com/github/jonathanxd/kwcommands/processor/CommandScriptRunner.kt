@@ -0,0 +1,227 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.processor
+
+import com.github.jonathanxd.iutils.text.Text
+import com.github.jonathanxd.iutils.text.localizer.Localizer
+import com.github.jonathanxd.kwcommands.dispatch.ResultSink
+import com.github.jonathanxd.kwcommands.help.HelpInfoHandler
+import com.github.jonathanxd.kwcommands.information.InformationProviders
+import com.github.jonathanxd.kwcommands.information.InformationProvidersVoid
+import com.github.jonathanxd.kwcommands.printer.Printer
+import java.nio.Buffer
+import java.nio.ByteBuffer
+import java.nio.CharBuffer
+import java.nio.channels.FileChannel
+import java.nio.charset.Charset
+import java.nio.charset.CharsetDecoder
+import java.nio.charset.CodingErrorAction
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+
+/**
+ * Runs command scripts. A command script is a file with one command line per line, blank lines and lines
+ * starting with `#` are ignored.
+ *
+ * The script file is memory-mapped in windows and each command line is decoded to a string of its own, so no
+ * string is created for the whole script. Lines are parsed and dispatched one after another through [processor],
+ * parse fails and results that are not [values][ValueResult] are reported to [helpInfoHandler] preceded by the
+ * line number.
+ *
+ * @property processor Processor to parse and dispatch lines.
+ * @property helpInfoHandler Handler of failures.
+ * @property printer Printer of failures.
+ * @property charset Charset of scripts, must encode `\n` as the single byte `0x0A` (like UTF-8 and ISO-8859-1).
+ */
+class CommandScriptRunner @JvmOverloads constructor(
+    val processor: CommandProcessor,
+    val helpInfoHandler: HelpInfoHandler,
+    val printer: Printer,
+    val charset: Charset = Charsets.UTF_8
+) {
+
+    /**
+     * Runs all lines of script at [path].
+     *
+     * @param owner Owner of commands.
+     * @param informationProviders Information providers of all lines.
+     * @param localizer Localizer of command names, or `null` to not match localized names.
+     * @return Summary of the execution.
+     */
+    @JvmOverloads
+    fun run(
+        path: Path,
+        owner: Any?,
+        informationProviders: InformationProviders = InformationProvidersVoid,
+        localizer: Localizer? = null
+    ): ScriptResult =
+        FileChannel.open(path, StandardOpenOption.READ).use { channel ->
+            Execution(owner, informationProviders, localizer).also { it.run(channel) }.let {
+                ScriptResult(it.lines, it.failedLines)
+            }
+        }
+
+    private inner class Execution(
+        val owner: Any?,
+        val informationProviders: InformationProviders,
+        val localizer: Localizer?
+    ) : ResultSink {
+        private val decoder: CharsetDecoder = charset.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE)
+        private var chars: CharBuffer = CharBuffer.allocate(256)
+        private var lineNumber = 0
+        private var lineFailed = false
+        var lines = 0
+        var failedLines = 0
+
+        override val acceptsValues: Boolean
+            get() = false
+
+        override fun accept(result: CommandResult) {
+            if (result !is ValueResult) {
+                this.fail()
+                helpInfoHandler.handleResult(result, printer)
+            }
+        }
+
+        fun run(channel: FileChannel) {
+            val size = channel.size()
+            var position = 0L
+            var window = WINDOW_SIZE
+
+            while (position < size) {
+                val length = minOf(window.toLong(), size - position).toInt()
+                val mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, length.toLong())
+                val last = position + length == size
+                var start = 0
+
+                for (index in 0 until length) {
+                    if (mapped.get(index) == NEW_LINE) {
+                        this.line(mapped, start, index)
+                        start = index + 1
+                    }
+                }
+
+                when {
+                    last -> {
+                        if (start < length)
+                            this.line(mapped, start, length)
+
+                        position = size
+                    }
+                    start == 0 -> {
+                        // Line is larger than window
+                        if (window == Int.MAX_VALUE)
+                            throw IllegalStateException("Line ${this.lineNumber + 1} of script is too large.")
+
+                        window = if (window > Int.MAX_VALUE / 2) Int.MAX_VALUE else window * 2
+                    }
+                    else -> position += start
+                }
+            }
+        }
+
+        private fun line(bytes: ByteBuffer, from: Int, to: Int) {
+            ++this.lineNumber
+            this.lineFailed = false
+
+            val end = if (to > from && bytes.get(to - 1) == CARRIAGE_RETURN) to - 1 else to
+            var first = from
+
+            while (first < end && (bytes.get(first) == SPACE || bytes.get(first) == TAB))
+                ++first
+
+            if (first == end || bytes.get(first) == COMMENT)
+                return
+
+            ++this.lines
+
+            val commandString = this.decode(bytes, from, end)
+            val parse =
+                if (this.localizer == null) processor.parse(commandString, this.owner)
+                else processor.parse(commandString, this.owner, this.localizer)
+
+            if (parse.isLeft) {
+                this.fail()
+                helpInfoHandler.handleFail(parse.left, printer)
+            } else {
+                processor.dispatch(parse.right, this.informationProviders, this)
+            }
+
+            if (this.lineFailed)
+                printer.flush()
+        }
+
+        private fun fail() {
+            if (!this.lineFailed) {
+                this.lineFailed = true
+                ++failedLines
+                printer.printPlain(Text.of("Line ${this.lineNumber}:"))
+            }
+        }
+
+        private fun decode(bytes: ByteBuffer, from: Int, to: Int): String {
+            val slice = bytes.duplicate()
+            (slice as Buffer).limit(to)
+            (slice as Buffer).position(from)
+
+            val max = ((to - from) * this.decoder.maxCharsPerByte().toDouble()).toInt() + 1
+
+            if (this.chars.capacity() < max)
+                this.chars = CharBuffer.allocate(max)
+
+            val chars = this.chars
+            (chars as Buffer).clear()
+
+            this.decoder.reset()
+            this.decoder.decode(slice, chars, true)
+            this.decoder.flush(chars)
+            (chars as Buffer).flip()
+
+            return chars.toString()
+        }
+    }
+
+    /**
+     * Summary of execution of a script.
+     *
+     * @property lines Amount of command lines executed (blank lines and comments are not counted).
+     * @property failedLines Amount of command lines that failed to parse or produced failure results.
+     */
+    data class ScriptResult(val lines: Int, val failedLines: Int)
+
+    companion object {
+        private const val WINDOW_SIZE = 16 * 1024 * 1024
+        private const val NEW_LINE = '\n'.toByte()
+        private const val CARRIAGE_RETURN = '\r'.toByte()
+        private const val SPACE = ' '.toByte()
+        private const val TAB = '\t'.toByte()
+        private const val COMMENT = '#'.toByte()
+    }
+}
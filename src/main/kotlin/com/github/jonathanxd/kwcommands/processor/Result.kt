@@ -75,6 +75,17 @@ data class MissingInformationResult(
     override val container: Container
 ) : CommandResult
 
+/**
+ * When [container] was not handled because [maxConcurrentDispatches] dispatches of the command were already running.
+ *
+ * @see com.github.jonathanxd.kwcommands.command.CommandMetadata.MAX_CONCURRENT_DISPATCHES
+ */
+data class ConcurrencyLimitResult(
+    val maxConcurrentDispatches: Int,
+    override val rootContainer: Container?,
+    override val container: Container
+) : CommandResult
+
 /**
  * A particular result handler which allows command handler to add more [CommandResults][CommandResult]
  * during command handling phase.
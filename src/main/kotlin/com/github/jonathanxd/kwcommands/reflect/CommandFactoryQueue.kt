@@ -29,6 +29,7 @@ package com.github.jonathanxd.kwcommands.reflect
 
 import com.github.jonathanxd.kwcommands.command.Command
 import com.github.jonathanxd.kwcommands.reflect.env.Checker
+import com.github.jonathanxd.kwcommands.reflect.util.resolveParents
 import java.util.*
 
 
@@ -38,34 +39,56 @@ import java.util.*
  * checks and tries to add `queued commands` to `created command list` list when you get [command list][commands].
  *
  * This class is used to avoid premature dependency checking (earlier than the dependent command can be registered).
+ *
+ * Queued commands wait on the point where resolution of their parent path stops: the name of the missing root
+ * command, or the command which misses the next sub-command. Creating a command only checks commands that wait on
+ * its name or on its parent, and created commands are indexed by name, so resolving the queue is not quadratic
+ * in the amount of queued commands. Queued commands are created in the order they were queued whenever more than
+ * one command can be created. All methods of this class can be called from multiple threads.
  */
 class CommandFactoryQueue {
 
+    private val lock = Any()
     private val created_ = mutableListOf<Command>()
-    private val createdUnmod = Collections.unmodifiableList(created_)
-    private val queued_ = mutableListOf<QueuedCommand>()
+    private val createdSet = hashSetOf<Command>()
+    private val createdUnmod = CreatedCommands()
+
+    /**
+     * First created command of each name, like the lookup of [resolveParents] in created commands.
+     */
+    private val createdByName = hashMapOf<String, Command>()
+
+    private val queued_ = LinkedHashSet<QueuedCommand>()
+    private val waitingRoot = hashMapOf<String, MutableList<QueuedCommand>>()
+    private val waitingSubCommand = IdentityHashMap<Command, MutableList<QueuedCommand>>()
+    private val ready = PriorityQueue<QueuedCommand>(compareBy { it.sequence })
+    private var sequence = 0L
 
     /**
      * Resolve all queued commands and gets the list of commands.
      */
     val commands: List<Command>
-        get() {
+        get() = synchronized(this.lock) {
             this.createAll()
 
-            if (queued_.isNotEmpty())
-                throw IllegalStateException("Missing dependency or recursive dependency found. ${queued_.map {
-                    "Sub command ${it.dependencyProvider()} for command ${it.name} (in ${it.location}) is missing."
+            if (this.queued_.isNotEmpty())
+                throw IllegalStateException("Missing dependency or recursive dependency found. ${this.queued_.groupBy {
+                    it.dependencyCheck.parents.joinToString(separator = " ")
+                }.map { (path, queued) ->
+                    "Parent command '$path' of ${queued.joinToString { "${it.dependencyProvider()} (in ${it.location})" }} is missing."
                 }}")
 
-            return createdUnmod
+            return Collections.unmodifiableList(ArrayList(this.created_))
         }
 
     /**
      * Adds a command to resolved command list.
      */
     fun add(command: Command) {
-        if (!this.created_.contains(command))
-            this.created_.add(command)
+        synchronized(this.lock) {
+            if (!this.createdSet.contains(command))
+                this.created(command)
+        }
     }
 
     /**
@@ -87,77 +110,124 @@ class CommandFactoryQueue {
         dependencyCheck: Checker,
         dependencyProvider: () -> String
     ) {
-        if (dependencyCheck(this.createdUnmod))
-            this.created_.add(factory(this.createdUnmod))
-        else
-            this.queued_.add(
-                QueuedCommand(
+        synchronized(this.lock) {
+            if (dependencyCheck(this.createdUnmod)) {
+                this.created(factory(this.createdUnmod))
+            } else {
+                val queued = QueuedCommand(
                     location,
                     name,
                     factory,
                     dependencyCheck,
-                    dependencyProvider
+                    dependencyProvider,
+                    this.sequence++
                 )
-            )
 
+                this.queued_ += queued
+                this.check(queued)
+            }
+        }
     }
 
     /**
      * Resolves all `queued commands`.
+     *
+     * Ready commands are created in queue order, each created command wakes the commands waiting on it. When no
+     * command is ready, all remaining commands are checked once more, because parent commands may also be
+     * registered in the command manager or added as sub-commands outside of this queue.
      */
     private fun createAll() {
-        var modified = true
-
-        while (queued_.isNotEmpty()) {
-            if (!modified)
-                throw IllegalStateException("Recursive dependency found or dependency missing. Queued commands:" +
-                        " ${this.queued_.joinToString(
-                            prefix = "[",
-                            postfix = "]"
-                        ) { it.name }}." +
-                        " Created commands:" +
-                        " ${this.created_.joinToString(
-                            prefix = "[",
-                            postfix = "]"
-                        ) { it.name }}"
-                )
+        while (this.queued_.isNotEmpty()) {
+            while (this.ready.isNotEmpty()) {
+                val next = this.ready.poll()
+
+                if (this.queued_.remove(next))
+                    this.created(next.factory(this.createdUnmod))
+            }
+
+            if (this.queued_.isEmpty())
+                return
+
+            this.waitingRoot.clear()
+            this.waitingSubCommand.clear()
+            this.queued_.forEach { this.check(it) }
+
+            if (this.ready.isEmpty())
+                return
+        }
+    }
 
-            modified = false
+    private fun created(command: Command) {
+        this.created_.add(command)
+        this.createdSet.add(command)
 
-            val copy = queued_.toList()
+        if (this.createdByName.putIfAbsent(command.name, command) == null)
+            this.waitingRoot.remove(command.name)?.forEach { this.check(it) }
 
-            for (it in copy) {
-                if (it.create()) {
-                    modified = true
-                    break
-                } else {
-                    modified = false
+        command.parent?.let { parent ->
+            this.waitingSubCommand.remove(parent)?.forEach { this.check(it) }
+        }
+    }
+
+    /**
+     * Adds [queued] to [ready] commands if its parent path resolves, or makes it wait on the point where the
+     * resolution stops.
+     */
+    private fun check(queued: QueuedCommand) {
+        val checker = queued.dependencyCheck
+        val parents = checker.parents
+
+        if (parents.isEmpty()) {
+            this.ready += queued
+            return
+        }
+
+        var command = checker.manager.getCommand(parents.first(), checker.owner)
+                ?: this.createdByName[parents.first()]
+                ?: run {
+                    this.waitingRoot.getOrPut(parents.first()) { mutableListOf() } += queued
+                    return
                 }
+
+        for (index in 1 until parents.size) {
+            val subCommand = checker.manager.getSubCommand(command, parents[index])
+
+            if (subCommand == null) {
+                this.waitingSubCommand.getOrPut(command) { mutableListOf() } += queued
+                return
             }
+
+            command = subCommand
         }
+
+        this.ready += queued
     }
 
     fun clear() {
-        this.queued_.clear()
-        this.created_.clear()
+        synchronized(this.lock) {
+            this.queued_.clear()
+            this.waitingRoot.clear()
+            this.waitingSubCommand.clear()
+            this.ready.clear()
+            this.created_.clear()
+            this.createdSet.clear()
+            this.createdByName.clear()
+        }
     }
 
     /**
-     * Check dependencies of [QueuedCommand], if satisfied, remove from `queued command list` and add to `created command list`.
-     *
-     * @return True if dependencies is satisfied.
+     * Read-only view of created commands with constant-time lookup of commands by name for [resolveParents].
      */
-    private fun QueuedCommand.create(): Boolean {
-        if (this.dependencyCheck(createdUnmod)) {
-            created_.add(this.factory(createdUnmod))
+    internal inner class CreatedCommands : AbstractList<Command>() {
+        override val size: Int
+            get() = created_.size
 
-            if (queued_.contains(this))
-                queued_.remove(this)
-
-            return true
-        }
+        override fun get(index: Int): Command = created_[index]
 
-        return false
+        /**
+         * Gets the first created command named [name].
+         */
+        fun getByName(name: String): Command? = createdByName[name]
     }
 
 }
@@ -167,5 +237,6 @@ internal data class QueuedCommand(
     val name: String,
     val factory: (List<Command>) -> Command,
     val dependencyCheck: Checker,
-    val dependencyProvider: () -> String
+    val dependencyProvider: () -> String,
+    val sequence: Long
 )
@@ -0,0 +1,58 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.reflect
+
+import com.github.jonathanxd.kwcommands.command.Command
+import com.github.jonathanxd.kwcommands.manager.InstanceProvider
+import com.github.jonathanxd.kwcommands.reflect.env.ReflectionEnvironment
+
+/**
+ * Registry of commands that are created without scanning classes for annotations, for example, commands
+ * written with the command DSL or registries generated at build time by the `KWCommands-processor` annotation
+ * processor for classes annotated with [GenerateRegistry][com.github.jonathanxd.kwcommands.reflect.annotation.GenerateRegistry].
+ *
+ * Registries are loaded as [services][java.util.ServiceLoader] by [ReflectionEnvironment.fromRegistries],
+ * so registries must be listed in `META-INF/services/com.github.jonathanxd.kwcommands.reflect.CommandRegistry`.
+ */
+interface CommandRegistry {
+
+    /**
+     * Adds commands of this registry to [queue].
+     *
+     * @param environment Environment to resolve argument types and handlers.
+     * @param instanceProvider Provider of class instances (null for static elements).
+     * @param owner Owner of commands, used to fetch parent command.
+     * @param queue Queue to add commands to, parent commands are resolved from commands of the queue.
+     */
+    fun queueCommands(
+        environment: ReflectionEnvironment,
+        instanceProvider: InstanceProvider,
+        owner: Any?,
+        queue: CommandFactoryQueue
+    )
+}
@@ -39,7 +39,17 @@ import com.github.jonathanxd.kwcommands.information.Information
 import com.github.jonathanxd.kwcommands.information.InformationProviders
 import com.github.jonathanxd.kwcommands.processor.ResultHandler
 import com.github.jonathanxd.kwcommands.reflect.element.*
+import com.github.jonathanxd.kwcommands.util.BOOLEAN_DEFAULT_VALUE
+import com.github.jonathanxd.kwcommands.util.BYTE_DEFAULT_VALUE
+import com.github.jonathanxd.kwcommands.util.CHAR_DEFAULT_VALUE
+import com.github.jonathanxd.kwcommands.util.DOUBLE_DEFAULT_VALUE
+import com.github.jonathanxd.kwcommands.util.FLOAT_DEFAULT_VALUE
+import com.github.jonathanxd.kwcommands.util.INT_DEFAULT_VALUE
+import com.github.jonathanxd.kwcommands.util.LONG_DEFAULT_VALUE
+import com.github.jonathanxd.kwcommands.util.SHORT_DEFAULT_VALUE
+import java.lang.invoke.MethodHandle
 import java.lang.invoke.MethodHandles
+import java.lang.invoke.MethodType
 import java.lang.reflect.Field
 import java.lang.reflect.Modifier
 
@@ -49,20 +59,52 @@ import java.lang.reflect.Modifier
 class ReflectionHandler constructor(val element: Element) : Handler, ArgumentHandler<Any> {
 
 
+    /**
+     * Method handle of [element] adapted to `(Object[])Object`, invoked directly with argument array.
+     * `null` if element cannot be invoked through a method handle, in this case, [link] is used.
+     */
+    private val invoker: MethodHandle? = when (element) {
+        is FieldElement -> fieldSetterHandle(element.field)
+        is MethodElement -> LOOKUP.unreflect(element.method)
+        is ConstructorElement -> LOOKUP.unreflectConstructor(element.ctr)
+        is InvokableElement, is EmptyElement -> null
+    }?.let { if (element.instance != null) it.bindTo(element.instance) else it }
+        ?.let { it.asType(MethodType.genericMethodType(it.type().parameterCount())) }
+        ?.let { it.asSpreader(Array<Any?>::class.java, it.type().parameterCount()) }
+
     @Suppress("UNCHECKED_CAST")
-    private val link: Link<Any?> = when (element) {
-        is FieldElement -> linkField(element.field)
-        is MethodElement -> Links.ofInvokable(Invokables.fromMethodHandle(LOOKUP.unreflect(element.method)))
-        is ConstructorElement -> Links.ofInvokable(
-            Invokables.fromMethodHandle(
-                LOOKUP.unreflectConstructor(
-                    element.ctr
+    private val link: Link<Any?> by lazy {
+        when (element) {
+            is FieldElement -> linkField(element.field)
+            is MethodElement -> Links.ofInvokable(Invokables.fromMethodHandle(LOOKUP.unreflect(element.method)))
+            is ConstructorElement -> Links.ofInvokable(
+                Invokables.fromMethodHandle(
+                    LOOKUP.unreflectConstructor(
+                        element.ctr
+                    )
                 )
             )
-        )
-        is InvokableElement -> Links.ofInvokable(element.invokable)
-        is EmptyElement -> Links.ofInvokable<Any?> { Unit }
-    }.let { if (element.instance != null) it.bind(element.instance) else it }
+            is InvokableElement -> Links.ofInvokable(element.invokable)
+            is EmptyElement -> Links.ofInvokable<Any?> { Unit }
+        }.let { if (element.instance != null) it.bind(element.instance) else it }
+    }
+
+    /**
+     * Values passed to primitive parameters when argument is not present, `null` cannot be
+     * passed to primitive parameters.
+     */
+    private val primitiveDefaults: Array<Any?> =
+        element.parameters.map { primitiveDefault(it.type.typeClass) }.toTypedArray()
+
+    /**
+     * Parameter indexes of arguments by argument name, all parameters of an argument receive its value.
+     */
+    private val argumentSlots: Map<String, IntArray> = HashMap<String, IntArray>().also { slots ->
+        element.parameters.forEachIndexed { index, parameter ->
+            if (parameter is ElementParameter.ArgumentParameter<*>)
+                slots.merge(parameter.argument.name, intArrayOf(index)) { old, new -> old + new }
+        }
+    }
 
     @Suppress("UNCHECKED_CAST")
     override fun handle(
@@ -70,23 +112,36 @@ class ReflectionHandler constructor(val element: Element) : Handler, ArgumentHan
         informationProviders: InformationProviders,
         resultHandler: ResultHandler
     ): Any {
+        val parameters = element.parameters
+        val args = arrayOfNulls<Any?>(parameters.size)
 
-        val args = mutableListOf<Any?>()
+        if (this.argumentSlots.isNotEmpty()) {
+            val arguments = commandContainer.arguments
+
+            // Reverse order, so first argument with a name wins, as in a sequential search
+            for (i in arguments.indices.reversed()) {
+                val argument = arguments[i]
+                val slots = this.argumentSlots[argument.argument.name] ?: continue
+
+                for (slot in slots)
+                    args[slot] = argument.value
+            }
+        }
+
+        for (index in parameters.indices) {
+            val parameter = parameters[index]
 
-        element.parameters.forEach { parameter ->
             when (parameter) {
                 is ElementParameter.ArgumentParameter<*> -> {
-                    args += commandContainer.arguments.find { parameter.argument.name == it.argument.name }
-                        ?.value
+                    if (args[index] == null)
+                        args[index] = this.primitiveDefaults[index]
                 }
                 is ElementParameter.InformationParameter<*> -> {
                     val information =
                         informationProviders.find(parameter.id/*, parameter.infoComponent*/)
 
-                    if (!parameter.isOptional && information == null) {
-                        args.add(null)
-                    } else {
-                        args += if (parameter.type.typeClass != Information::class.java) {
+                    if (parameter.isOptional || information != null) {
+                        args[index] = if (parameter.type.typeClass != Information::class.java) {
                             information?.value
                         } else {
                             information ?: Information.EMPTY
@@ -94,10 +149,10 @@ class ReflectionHandler constructor(val element: Element) : Handler, ArgumentHan
                     }
                 }
                 is ElementParameter.CtxParameter -> {
-                    args += CommandContext(commandContainer, informationProviders, resultHandler)
+                    args[index] = CommandContext(commandContainer, informationProviders, resultHandler)
                 }
                 is ElementParameter.CmdContainerParameter -> {
-                    args += commandContainer
+                    args[index] = commandContainer
                 }
             }
         }
@@ -105,7 +160,17 @@ class ReflectionHandler constructor(val element: Element) : Handler, ArgumentHan
         if (resultHandler.shouldCancel())
             return Unit
 
-        return link(*args.toTypedArray()) ?: Unit
+        return this.invoke(args) ?: Unit
+    }
+
+    private fun invoke(args: Array<Any?>): Any? {
+        val invoker = this.invoker ?: return link(*args)
+
+        return try {
+            invoker.invokeExact(args) as Any?
+        } catch (t: Throwable) {
+            rethrowAsLink(t)
+        }
     }
 
     override fun handle(
@@ -120,7 +185,7 @@ class ReflectionHandler constructor(val element: Element) : Handler, ArgumentHan
         return when (parameter) {
             is ElementParameter.ArgumentParameter<*> -> {
                 argumentContainer.value?.let {
-                    link.invoke(argumentContainer.value) ?: Unit
+                    this.invoke(arrayOf(argumentContainer.value)) ?: Unit
                 } ?: Unit
             }
             is ElementParameter.InformationParameter<*> -> {
@@ -131,18 +196,18 @@ class ReflectionHandler constructor(val element: Element) : Handler, ArgumentHan
                     Unit
                 } else {
                     if (parameter.type.typeClass != Information::class.java) {
-                        link.invoke(information?.value) ?: Unit
+                        this.invoke(arrayOf(information?.value)) ?: Unit
                     } else {
-                        link.invoke(information ?: Information.EMPTY) ?: Unit
+                        this.invoke(arrayOf(information ?: Information.EMPTY)) ?: Unit
                     }
                 }
             }
             is ElementParameter.CtxParameter -> {
-                link.invoke(CommandContext(commandContainer, informationProviders, resultHandler))
+                this.invoke(arrayOf(CommandContext(commandContainer, informationProviders, resultHandler)))
                         ?: Unit
             }
             is ElementParameter.CmdContainerParameter -> {
-                link.invoke(commandContainer) ?: Unit
+                this.invoke(arrayOf(commandContainer)) ?: Unit
             }
         }
     }
@@ -150,19 +215,47 @@ class ReflectionHandler constructor(val element: Element) : Handler, ArgumentHan
     companion object {
         private val LOOKUP = MethodHandles.lookup()
 
-        fun linkField(field: Field): Link<Any?> =
+        /**
+         * Throws [t] wrapped the same way as exceptions thrown through [link], which invokes elements through
+         * [Invokables.fromMethodHandle].
+         */
+        private fun rethrowAsLink(t: Throwable): Nothing {
+            Invokables.fromMethodHandle<Any?>(
+                MethodHandles.throwException(Any::class.java, t.javaClass).bindTo(t)
+            ).invoke()
+
+            throw t
+        }
+
+        private fun primitiveDefault(type: Class<*>): Any? =
+            when (type) {
+                Int::class.javaPrimitiveType -> INT_DEFAULT_VALUE
+                Long::class.javaPrimitiveType -> LONG_DEFAULT_VALUE
+                Double::class.javaPrimitiveType -> DOUBLE_DEFAULT_VALUE
+                Float::class.javaPrimitiveType -> FLOAT_DEFAULT_VALUE.toFloat()
+                Short::class.javaPrimitiveType -> SHORT_DEFAULT_VALUE
+                Byte::class.javaPrimitiveType -> BYTE_DEFAULT_VALUE
+                Char::class.javaPrimitiveType -> CHAR_DEFAULT_VALUE
+                Boolean::class.javaPrimitiveType -> BOOLEAN_DEFAULT_VALUE
+                else -> null
+            }
+
+        private fun fieldSetterHandle(field: Field): MethodHandle =
             if (field.isAccessible || Modifier.isPublic(field.modifiers)) {
-                Links.ofInvokable(Invokables.fromMethodHandle(LOOKUP.unreflectSetter(field)))
+                LOOKUP.unreflectSetter(field)
             } else {
                 field.declaringClass.getDeclaredMethod("set${field.name.capitalize()}", field.type)
                     .let {
                         if (it == null || (!Modifier.isPublic(it.modifiers) && !it.isAccessible))
                             throw IllegalArgumentException("Accessible setter of field $field was not found!")
                         else {
-                            Links.ofInvokable(Invokables.fromMethodHandle<Any?>(LOOKUP.unreflect(it)))
+                            LOOKUP.unreflect(it)
                         }
                     }
             }
+
+        fun linkField(field: Field): Link<Any?> =
+            Links.ofInvokable(Invokables.fromMethodHandle(fieldSetterHandle(field)))
     }
 
 }
\ No newline at end of file
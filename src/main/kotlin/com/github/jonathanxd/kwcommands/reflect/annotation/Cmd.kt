@@ -48,6 +48,7 @@ import kotlin.reflect.KClass
  * @property alias Aliases to command.
  * @property parents Path to parent command (if this command is a sub command).
  * @property requirements Command requirements.
+ * @property orderIndependent Whether the command is [order independent][com.github.jonathanxd.kwcommands.command.Command.isOrderIndependent].
  * @property handler Command handler (for functions, defaults to function invocation with
  * corresponding [arguments][Arg], [information][Info] and [command context][Ctx], for classes, defaults to a handler
  * that does nothing, if the class have any function annotated with [CmdHandler], the annotated function
@@ -64,5 +65,6 @@ annotation class Cmd(
     val aliasComponent: String = "",
     val parents: Array<String> = [],
     val requirements: Array<Require> = [],
-    val handler: KClass<out Handler> = NoneHandler::class
+    val handler: KClass<out Handler> = NoneHandler::class,
+    val orderIndependent: Boolean = false
 )
\ No newline at end of file
@@ -0,0 +1,139 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.reflect.env
+
+import com.github.jonathanxd.iutils.type.TypeInfo
+import com.github.jonathanxd.kwcommands.argument.ArgumentType
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Concurrent cache of [ArgumentType]s resolved for [TypeInfo]s, so identical types share the same [ArgumentType]
+ * instance and providers are only asked once for each type.
+ *
+ * Cached values belongs to a generation, the generation changes when [invalidate] is called in this cache
+ * or in [parent] cache (values resolved by this cache may come from providers of parent cache).
+ * Values of older generations are never returned, and values resolved while the generation changes are not cached.
+ *
+ * Absence of [ArgumentType] for a type is cached too.
+ *
+ * @property parent Cache of the fallback storage.
+ */
+class ArgumentTypeCache internal constructor(private val parent: ArgumentTypeCache?) {
+
+    private val cache = ConcurrentHashMap<TypeInfo<*>, Entry>()
+    private val generation_ = AtomicLong()
+    private val hits_ = AtomicLong()
+    private val misses_ = AtomicLong()
+
+    /**
+     * Current generation. Generations only grows, also when [parent] is invalidated.
+     */
+    val generation: Long
+        get() = this.generation_.get() + (this.parent?.generation ?: 0L)
+
+    /**
+     * Amount of lookups resolved from cache.
+     */
+    val hits: Long
+        get() = this.hits_.get()
+
+    /**
+     * Amount of lookups resolved by providers.
+     */
+    val misses: Long
+        get() = this.misses_.get()
+
+    /**
+     * Amount of cached types.
+     */
+    val size: Int
+        get() = this.cache.size
+
+    /**
+     * Gets cached [ArgumentType] of [type] or resolves it with [resolver] and caches the result.
+     *
+     * [resolver] may call this function recursively, for example, to resolve type of elements of a list.
+     */
+    @Suppress("UNCHECKED_CAST")
+    internal inline fun <T> getOrResolve(
+        type: TypeInfo<T>,
+        resolver: (type: TypeInfo<T>) -> ArgumentType<*, T>?
+    ): ArgumentType<*, T>? {
+        val generation = this.generation
+        val cached = this.getCached(type, generation)
+
+        if (cached != null)
+            return cached.argumentType as ArgumentType<*, T>?
+
+        return this.put(type, generation, resolver(type)) as ArgumentType<*, T>?
+    }
+
+    internal fun getCached(type: TypeInfo<*>, generation: Long): Entry? {
+        val entry = this.cache[type]
+
+        if (entry != null && entry.generation == generation) {
+            this.hits_.incrementAndGet()
+            return entry
+        }
+
+        this.misses_.incrementAndGet()
+        return null
+    }
+
+    /**
+     * Caches [argumentType] if generation is still the same, if other thread already cached a value of the same
+     * generation, that value is returned instead.
+     */
+    internal fun put(type: TypeInfo<*>, generation: Long, argumentType: ArgumentType<*, *>?): ArgumentType<*, *>? {
+        if (this.generation != generation)
+            return argumentType
+
+        val entry = Entry(argumentType, generation)
+
+        while (true) {
+            val current = this.cache.putIfAbsent(type, entry) ?: return argumentType
+
+            if (current.generation == generation)
+                return current.argumentType
+
+            if (this.cache.replace(type, current, entry))
+                return argumentType
+        }
+    }
+
+    /**
+     * Invalidates all cached values.
+     */
+    fun invalidate() {
+        this.generation_.incrementAndGet()
+        this.cache.clear()
+    }
+
+    internal class Entry(val argumentType: ArgumentType<*, *>?, val generation: Long)
+}
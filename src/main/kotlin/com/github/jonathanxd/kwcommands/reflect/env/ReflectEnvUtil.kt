@@ -39,6 +39,7 @@ import com.github.jonathanxd.kwcommands.reflect.element.ElementParameter
 import com.github.jonathanxd.kwcommands.reflect.util.get
 import com.github.jonathanxd.kwcommands.reflect.util.getHandlerOrNull
 import com.github.jonathanxd.kwcommands.reflect.util.getRequirements
+import com.github.jonathanxd.kwcommands.requirement.Requirement
 import com.github.jonathanxd.kwcommands.util.*
 import java.lang.reflect.AnnotatedElement
 import java.lang.reflect.Field
@@ -94,27 +95,59 @@ fun AnnotatedElement.createArg(
         else it
     }
 
-    val nameComponent = argumentAnnotation?.nameComponent?.let {
-        if (it.isEmpty()) null else it
-    }
-
-    val type = type_ ?: this.type()
+    @Suppress("UNCHECKED_CAST")
+    return createArgument(
+        reflectionEnvironment = reflectionEnvironment,
+        name = name,
+        nameComponent = argumentAnnotation?.nameComponent.orEmpty(),
+        alias = argumentAnnotation?.alias.orEmpty(),
+        aliasComponent = argumentAnnotation?.aliasComponent.orEmpty(),
+        description = argumentAnnotation?.description.orEmpty(),
+        optional = argumentAnnotation?.optional,
+        type = type_ ?: this.type(),
+        argumentType = { argumentAnnotation?.argumentType?.get()?.invoke() },
+        requirements = argumentAnnotation?.getRequirements(this).orEmpty(),
+        handler = argumentAnnotation?.getHandlerOrNull() as? ArgumentHandler<out Any>
+    )
+}
 
+/**
+ * Create argument from values of an [Arg] annotation.
+ *
+ * Used by [createArg] and by [command registries][com.github.jonathanxd.kwcommands.reflect.CommandRegistry]
+ * generated at build time, so both create the same argument.
+ *
+ * @param nameComponent [Arg.nameComponent], or empty to use [name].
+ * @param aliasComponent [Arg.aliasComponent], or empty for no alias component.
+ * @param optional [Arg.optional], or `null` to infer from [type] (`Optional` types are optional).
+ * @param argumentType Argument type to use if [reflectionEnvironment] has no argument type for [type].
+ */
+fun createArgument(
+    reflectionEnvironment: ReflectionEnvironment,
+    name: String,
+    nameComponent: String,
+    alias: Array<out String>,
+    aliasComponent: String,
+    description: String,
+    optional: Boolean?,
+    type: TypeInfo<*>,
+    argumentType: () -> ArgumentType<*, *>?,
+    requirements: List<Requirement<*, *>>,
+    handler: ArgumentHandler<out Any>?
+): Argument<*> {
     val typeIsOpt = type.classLiteral == TypeInfo.of(Optional::class.java).classLiteral
     val typeIsOptInt = type.classLiteral == TypeInfo.of(OptionalInt::class.java).classLiteral
     val typeIsOptDouble = type.classLiteral == TypeInfo.of(OptionalDouble::class.java).classLiteral
     val typeIsOptLong = type.classLiteral == TypeInfo.of(OptionalLong::class.java).classLiteral
     val isOptional =
-        argumentAnnotation?.optional ?: typeIsOpt || typeIsOptInt || typeIsOptDouble || typeIsOptLong
+        optional ?: typeIsOpt || typeIsOptInt || typeIsOptDouble || typeIsOptLong
     val argumentType0 = reflectionEnvironment.getOrNull(type)
-            ?: argumentAnnotation?.argumentType?.get()?.invoke()
+            ?: argumentType()
             ?: stringArgumentType
 
-    val description = argumentAnnotation?.description ?: ""
-
     val def = argumentType0.defaultValue
     @Suppress("UNCHECKED_CAST")
-    val argumentType = when {
+    val resolvedType = when {
         def != null -> argumentType0
         typeIsOpt -> optArgumentType(argumentType0)
         typeIsOptInt -> optIntArgumentType(argumentType0 as ArgumentType<*, Int>)
@@ -123,21 +156,18 @@ fun AnnotatedElement.createArg(
         else -> argumentType0
     }
 
-    val aliasComponent = argumentAnnotation?.aliasComponent?.let { if (it.isEmpty()) null else it }
-        ?.let(TextUtil::parse)
-
     @Suppress("UNCHECKED_CAST")
     return Argument(
         name = name,
-        nameComponent = nameComponent?.let(TextUtil::parse) ?: Text.of(name),
-        alias = argumentAnnotation?.alias?.toList().orEmpty(),
-        aliasComponent = aliasComponent,
+        nameComponent = nameComponent.let { if (it.isEmpty()) null else it }?.let(TextUtil::parse) ?: Text.of(name),
+        alias = alias.toList(),
+        aliasComponent = aliasComponent.let { if (it.isEmpty()) null else it }?.let(TextUtil::parse),
         description = TextUtil.parse(description),
         isOptional = isOptional,
-        argumentType = argumentType,
+        argumentType = resolvedType,
         requiredInfo = emptySet(),
-        requirements = argumentAnnotation?.getRequirements(this).orEmpty(),
-        handler = argumentAnnotation?.getHandlerOrNull() as? ArgumentHandler<out Any>
+        requirements = requirements,
+        handler = handler
     )
 }
 
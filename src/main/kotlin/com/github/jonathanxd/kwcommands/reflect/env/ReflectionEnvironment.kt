@@ -42,6 +42,7 @@ import com.github.jonathanxd.kwcommands.json.resolveJsonString
 import com.github.jonathanxd.kwcommands.manager.CommandManager
 import com.github.jonathanxd.kwcommands.manager.InstanceProvider
 import com.github.jonathanxd.kwcommands.reflect.CommandFactoryQueue
+import com.github.jonathanxd.kwcommands.reflect.CommandRegistry
 import com.github.jonathanxd.kwcommands.reflect.HandlerResolver
 import com.github.jonathanxd.kwcommands.reflect.ReflectionHandler
 import com.github.jonathanxd.kwcommands.reflect.annotation.*
@@ -50,6 +51,10 @@ import com.github.jonathanxd.kwcommands.reflect.util.*
 import com.github.jonathanxd.kwcommands.util.*
 import java.lang.invoke.MethodHandles
 import java.lang.reflect.*
+import java.util.ServiceLoader
+import java.util.concurrent.Callable
+import java.util.concurrent.CopyOnWriteArraySet
+import java.util.concurrent.ForkJoinPool
 import kotlin.reflect.KClass
 
 typealias JsonParserResolver = (Class<*>) -> JsonCommandParser
@@ -75,22 +80,41 @@ typealias JsonParserResolver = (Class<*>) -> JsonCommandParser
  */
 class ReflectionEnvironment(val manager: CommandManager) : ArgumentTypeStorage {
 
-    private val argumentTypeProviders = mutableSetOf<ArgumentTypeProvider>()
-    private val handlerResolvers = mutableSetOf<HandlerResolver>()
+    private val argumentTypeProviders = CopyOnWriteArraySet<ArgumentTypeProvider>()
+    private val handlerResolvers = CopyOnWriteArraySet<HandlerResolver>()
+
+    /**
+     * Cache of argument types resolved by this environment, invalidated when providers of this environment or
+     * [global providers][registerGlobal] changes.
+     */
+    val argumentTypeCache = ArgumentTypeCache(globalArgumentTypeCache)
 
     /**
      * Registers [argumentTypeProvider].
+     *
+     * Providers are called from several threads at once when classes are scanned in parallel by
+     * [fromClasses] with a pool, so they must be thread-safe to be used in parallel scans.
      */
     override fun registerProvider(argumentTypeProvider: ArgumentTypeProvider) =
-        this.argumentTypeProviders.add(argumentTypeProvider)
+        this.argumentTypeProviders.add(argumentTypeProvider).also {
+            if (it) this.argumentTypeCache.invalidate()
+        }
 
 
     /**
      * Unregister [provider]
      */
     fun unregisterProvider(provider: ArgumentTypeProvider): Boolean =
-        this.argumentTypeProviders.remove(provider)
+        this.argumentTypeProviders.remove(provider).also {
+            if (it) this.argumentTypeCache.invalidate()
+        }
 
+    /**
+     * Registers [resolver].
+     *
+     * Resolvers are called from several threads at once when classes are scanned in parallel by
+     * [fromClasses] with a pool, so they must be thread-safe to be used in parallel scans.
+     */
     fun registerHandlerResolver(resolver: HandlerResolver): Boolean =
         this.handlerResolvers.add(resolver)
 
@@ -119,8 +143,10 @@ class ReflectionEnvironment(val manager: CommandManager) : ArgumentTypeStorage {
      */
     @Suppress("UNCHECKED_CAST")
     fun <T> getOrNull(type: TypeInfo<T>): ArgumentType<*, T>? =
-        this.argumentTypeProviders.getArgumentType(type, this)
-                ?: getGlobalArgumentTypeOrNull(type)
+        this.argumentTypeCache.getOrResolve(type) {
+            this.argumentTypeProviders.getArgumentType(it, this)
+                    ?: getGlobalArgumentTypeOrNull(it)
+        }
 
 
     /**
@@ -331,6 +357,44 @@ class ReflectionEnvironment(val manager: CommandManager) : ArgumentTypeStorage {
         }
     }
 
+    /**
+     * Create command list from all [command registries][CommandRegistry] provided as services
+     * to [classLoader]. Registries does not scan classes for annotations.
+     *
+     * @param instanceProvider Provider of class instances (null for static elements).
+     * @param owner Owner of commands, used to fetch parent command.
+     */
+    fun fromRegistries(
+        classLoader: ClassLoader,
+        instanceProvider: InstanceProvider,
+        owner: Any?
+    ): List<Command> {
+        val queue = CommandFactoryQueue()
+
+        this.fromRegistriesToQueue(classLoader, instanceProvider, owner, queue)
+
+        return queue.commands
+    }
+
+    /**
+     * Add commands of all [command registries][CommandRegistry] provided as services to [classLoader] to
+     * [queue], so commands of a registry may depend on commands of other registries.
+     *
+     * @param instanceProvider Provider of class instances (null for static elements).
+     * @param owner Owner of commands, used to fetch parent command.
+     * @param queue Command Factory Queue.
+     */
+    fun fromRegistriesToQueue(
+        classLoader: ClassLoader,
+        instanceProvider: InstanceProvider,
+        owner: Any?,
+        queue: CommandFactoryQueue
+    ) {
+        ServiceLoader.load(CommandRegistry::class.java, classLoader).forEach {
+            it.queueCommands(this, instanceProvider, owner, queue)
+        }
+    }
+
     /**
      * Create command list from commands of class [klass]
      *
@@ -462,9 +526,144 @@ class ReflectionEnvironment(val manager: CommandManager) : ArgumentTypeStorage {
         queue: CommandFactoryQueue,
         includeInner: Boolean
     ) {
+        this.queueClass(
+            this.scanClass(this.instanceTree(klass, instanceProvider, includeInner)),
+            superCommand,
+            owner,
+            queue
+        )
+    }
+
+    /**
+     * Create command list from commands of all [classes]. Classes are scanned one after another in the current thread.
+     *
+     * @see fromClassesToQueue
+     */
+    fun fromClasses(
+        classes: Collection<Class<*>>,
+        instanceProvider: InstanceProvider,
+        owner: Any?
+    ): List<Command> =
+        this.fromClasses(classes, instanceProvider, owner, true, null)
+
+    /**
+     * Create command list from commands of all [classes].
+     *
+     * @see fromClassesToQueue
+     */
+    fun fromClasses(
+        classes: Collection<Class<*>>,
+        instanceProvider: InstanceProvider,
+        owner: Any?,
+        includeInner: Boolean,
+        pool: ForkJoinPool?
+    ): List<Command> {
+        val queue = CommandFactoryQueue()
 
+        this.fromClassesToQueue(classes, instanceProvider, null, owner, queue, includeInner, pool)
+
+        return queue.commands
+    }
+
+    /**
+     * Add commands of all [classes] to queue. Arguments, handlers and elements of [classes] are created in
+     * parallel in [pool] (or in the current thread if [pool] is `null`), but commands are created and queued in the
+     * order of [classes], the result is the same as calling [fromClassToQueue] for each class. [instanceProvider]
+     * is only called from the current thread.
+     *
+     * When scanning in [pool], [argument type providers][registerProvider] (including
+     * [global providers][registerGlobal]) and [handler resolvers][registerHandlerResolver] are called from several
+     * threads at once, so all of them must be thread-safe.
+     *
+     * @param instanceProvider Provider of class instances (null for static elements).
+     * @param superCommand Super command.
+     * @param owner Owner of commands, used to fetch parent command.
+     * @param queue Command Factory Queue.
+     * @param includeInner Include inner class commands.
+     * @param pool Pool to scan classes in, or `null` to scan in the current thread.
+     * @see CommandFactoryQueue
+     * @see ReflectionEnvironment
+     */
+    fun fromClassesToQueue(
+        classes: Collection<Class<*>>,
+        instanceProvider: InstanceProvider,
+        superCommand: Command?,
+        owner: Any?,
+        queue: CommandFactoryQueue,
+        includeInner: Boolean,
+        pool: ForkJoinPool?
+    ) {
+        val trees = classes.map { this.instanceTree(it, instanceProvider, includeInner) }
+        val scanned =
+            if (pool == null) trees.map { this.scanClass(it) }
+            else trees.map { pool.submit(Callable { this.scanClass(it) }) }.map { it.join() }
+
+        scanned.forEach { this.queueClass(it, superCommand, owner, queue) }
+    }
+
+    /**
+     * Create list of commands from methods of [klass].
+     *
+     * @param instance Instance of class (null for static methods).
+     * @param superCommand Super command of all commands that does not specify a parent command.
+     * @param owner Owner of commands.
+     */
+    fun <T> fromMethodsOfClass(
+        klass: Class<T>,
+        instance: T?,
+        superCommand: Command?,
+        owner: Any?
+    ): List<Command> =
+        CommandFactoryQueue().apply {
+            fromMethodsOfClass(klass, instance, superCommand, owner, this)
+        }.commands
+
+    /**
+     * Create list of commands from methods of [klass].
+     *
+     * @param instance Instance of class (null for static methods).
+     * @param superCommand Super command of all commands that does not specify a parent command.
+     * @param owner Owner of commands.
+     * @param queue Command Factory Queue.
+     * @see CommandFactoryQueue
+     * @see ReflectionEnvironment
+     */
+    fun <T> fromMethodsOfClass(
+        klass: Class<T>,
+        instance: T?,
+        superCommand: Command?,
+        owner: Any?,
+        queue: CommandFactoryQueue
+    ) {
+        this.scanMethodsOfClass(klass, instance).forEach {
+            this.queueMethod(it, superCommand, owner, queue)
+        }
+    }
+
+    /**
+     * Creates instances of [klass] and of inner classes of [klass] (if [includeInner] is true) in the same order
+     * as they are scanned.
+     */
+    private fun instanceTree(klass: Class<*>, instanceProvider: InstanceProvider, includeInner: Boolean): ClassInstance {
         val instance = klass.cast(instanceProvider.checked(klass))
 
+        val inner =
+            if (!includeInner) emptyList()
+            else klass.declaredClasses
+                .filter { it.isAnnotationPresent(Cmd::class.java) }
+                .map { this.instanceTree(it, instanceProvider, includeInner) }
+
+        return ClassInstance(klass, instance, inner)
+    }
+
+    /**
+     * Creates arguments, handlers and elements of class and methods of [tree]. This function does not create or
+     * register commands, so classes can be scanned concurrently.
+     */
+    private fun scanClass(tree: ClassInstance): ClassScan {
+        val klass = tree.klass
+        val instance = tree.instance
+
         val command = klass.getDeclaredAnnotation(Cmd::class.java)
 
         val args = mutableListOf<Argument<*>>()
@@ -518,72 +717,50 @@ class ReflectionEnvironment(val manager: CommandManager) : ArgumentTypeStorage {
             handler = ReflectionHandler(EmptyElement(parameters))
         }
 
-        val kCommand = command?.toKCommand(
-            manager,
+        return ClassScan(
+            klass,
+            command,
             handler,
-            superCommand,
             args,
             requiredInfo,
-            owner,
-            klass
+            this.scanMethodsOfClass(klass, instance),
+            tree.inner.map { this.scanClass(it) }
         )
+    }
 
-        kCommand?.let { k ->
-            queue.queueCommand(
-                klass,
-                command.getName(klass),
-                {
-                    k
-                },
-                Checker(this.manager, owner, command, klass),
-                { command.getPath(klass).joinToString(separator = " ") })
-        }
-
-        fromMethodsOfClass(klass, instance, kCommand, owner, queue)
-
-        if (includeInner) {
-            klass.declaredClasses.forEach {
-                if (it.isAnnotationPresent(Cmd::class.java))
-                    fromClassToQueue(it, instanceProvider, kCommand, owner, queue, includeInner)
+    /**
+     * Creates commands of [scan] and queue them.
+     */
+    private fun queueClass(scan: ClassScan, superCommand: Command?, owner: Any?, queue: CommandFactoryQueue) {
+        val klass = scan.klass
+        val command = scan.command
+
+        val kCommand = command?.let { cmd ->
+            cmd.toKCommand(
+                manager,
+                scan.handler,
+                superCommand,
+                scan.arguments,
+                scan.requiredInfo,
+                owner,
+                klass
+            ).also { k ->
+                queue.queueCommand(
+                    klass,
+                    cmd.getName(klass),
+                    {
+                        k
+                    },
+                    Checker(this.manager, owner, cmd, klass),
+                    { cmd.getPath(klass).joinToString(separator = " ") })
             }
         }
 
+        scan.methods.forEach { this.queueMethod(it, kCommand, owner, queue) }
+        scan.inner.forEach { this.queueClass(it, kCommand, owner, queue) }
     }
 
-    /**
-     * Create list of commands from methods of [klass].
-     *
-     * @param instance Instance of class (null for static methods).
-     * @param superCommand Super command of all commands that does not specify a parent command.
-     * @param owner Owner of commands.
-     */
-    fun <T> fromMethodsOfClass(
-        klass: Class<T>,
-        instance: T?,
-        superCommand: Command?,
-        owner: Any?
-    ): List<Command> =
-        CommandFactoryQueue().apply {
-            fromMethodsOfClass(klass, instance, superCommand, owner, this)
-        }.commands
-
-    /**
-     * Create list of commands from methods of [klass].
-     *
-     * @param instance Instance of class (null for static methods).
-     * @param superCommand Super command of all commands that does not specify a parent command.
-     * @param owner Owner of commands.
-     * @param queue Command Factory Queue.
-     * @see CommandFactoryQueue
-     * @see ReflectionEnvironment
-     */
-    fun <T> fromMethodsOfClass(
-        klass: Class<T>,
-        instance: T?,
-        superCommand: Command?,
-        owner: Any?,
-        queue: CommandFactoryQueue
-    ) {
+    private fun scanMethodsOfClass(klass: Class<*>, instance: Any?): List<MethodScan> =
         klass.declaredMethods
             .filter {
                 it.isAnnotationPresent(Cmd::class.java)
@@ -591,7 +768,37 @@ class ReflectionEnvironment(val manager: CommandManager) : ArgumentTypeStorage {
                     it.modifiers
                 ) && instance != null))
             }
-            .map { fromMethod(instance, it, superCommand, owner, queue) }
+            .map { this.scanMethod(instance, it) }
+
+    private fun scanMethod(instance: Any?, method: Method): MethodScan {
+        val command = method.getDeclaredAnnotation(Cmd::class.java)
+        val (element, arguments, lreqs) = createElement(instance, method)
+
+        return MethodScan(method, command, command.getHandler(element, this), arguments, lreqs)
+    }
+
+    private fun queueMethod(scan: MethodScan, superCommand: Command?, owner: Any?, queue: CommandFactoryQueue) {
+        val method = scan.method
+        val command = scan.command
+
+        queue.queueCommand(
+            method,
+            command.getName(method),
+            { cmds ->
+                val superCmd = command.resolveParents(this.manager, owner, cmds) ?: superCommand
+
+                command.toKCommand(
+                    manager,
+                    scan.handler,
+                    superCmd,
+                    scan.arguments,
+                    scan.requiredInfo,
+                    owner,
+                    method
+                )
+            },
+            Checker(this.manager, owner, command, method),
+            { command.getPath(method).joinToString(separator = " ") })
     }
 
     fun resolveHandler(element: Element): Any {
@@ -667,28 +874,7 @@ class ReflectionEnvironment(val manager: CommandManager) : ArgumentTypeStorage {
         owner: Any?,
         queue: CommandFactoryQueue
     ) {
-        val command = method.getDeclaredAnnotation(Cmd::class.java)
-        val (element, arguments, lreqs) = createElement(instance, method)
-
-        queue.queueCommand(
-            method,
-            command.getName(method),
-            { cmds ->
-                val superCmd = command.resolveParents(this.manager, owner, cmds) ?: superCommand
-
-                command.toKCommand(
-                    manager,
-                    command.getHandler(element, this),
-                    superCmd,
-                    arguments,
-                    lreqs,
-                    owner,
-                    method
-                )
-            },
-            Checker(this.manager, owner, command, method),
-            { command.getPath(method).joinToString(separator = " ") })
-
+        this.queueMethod(this.scanMethod(instance, method), superCommand, owner, queue)
     }
 
     /**
@@ -770,22 +956,31 @@ class ReflectionEnvironment(val manager: CommandManager) : ArgumentTypeStorage {
      */
     fun copy(manager: CommandManager = this.manager) = ReflectionEnvironment(manager).also {
         it.argumentTypeProviders.addAll(this.argumentTypeProviders)
+        it.argumentTypeCache.invalidate()
     }
 
     companion object {
+        /**
+         * Cache of argument types resolved by global providers.
+         */
+        @JvmStatic
+        val globalArgumentTypeCache = ArgumentTypeCache(null)
+
         private val GLOBAL = object : ArgumentTypeStorage {
-            private val set = mutableSetOf<ArgumentTypeProvider>()
+            private val set = CopyOnWriteArraySet<ArgumentTypeProvider>()
 
             override fun registerProvider(argumentTypeProvider: ArgumentTypeProvider): Boolean {
-                return this.set.add(argumentTypeProvider)
+                return this.set.add(argumentTypeProvider).also {
+                    if (it) globalArgumentTypeCache.invalidate()
+                }
             }
 
             override fun <T> getArgumentTypeOrNull(type: TypeInfo<T>): ArgumentType<*, T>? {
-                return this.set.getArgumentType(type, this)
+                return globalArgumentTypeCache.getOrResolve(type) { this.set.getArgumentType(it, this) }
             }
 
             override fun <T> getArgumentType(type: TypeInfo<T>): ArgumentType<*, T> {
-                return this.set.getArgumentType(type, this)
+                return this.getArgumentTypeOrNull(type)
                         ?: throw IllegalArgumentException("No argument type provider for type: $type.")
             }
 
@@ -809,7 +1004,8 @@ class ReflectionEnvironment(val manager: CommandManager) : ArgumentTypeStorage {
 
 
         /**
-         * Registers global [ArgumentTypeProvider].
+         * Registers global [ArgumentTypeProvider]. Global providers must be thread-safe to be used in parallel
+         * scans (see [fromClassesToQueue]).
          */
         fun registerGlobal(argumentTypeProvider: ArgumentTypeProvider) =
             GLOBAL.registerProvider(argumentTypeProvider)
@@ -959,17 +1155,40 @@ class ReflectionEnvironment(val manager: CommandManager) : ArgumentTypeStorage {
         val arguments: List<Argument<*>>,
         val requiredInfo: Set<RequiredInformation>
     )
+
+    private class ClassInstance(val klass: Class<*>, val instance: Any?, val inner: List<ClassInstance>)
+
+    private class ClassScan(
+        val klass: Class<*>,
+        val command: Cmd?,
+        val handler: Handler?,
+        val arguments: List<Argument<*>>,
+        val requiredInfo: Set<RequiredInformation>,
+        val methods: List<MethodScan>,
+        val inner: List<ClassScan>
+    )
+
+    private class MethodScan(
+        val method: Method,
+        val command: Cmd,
+        val handler: Handler,
+        val arguments: List<Argument<*>>,
+        val requiredInfo: Set<RequiredInformation>
+    )
 }
 
 class Checker(
     val manager: CommandManager,
     val owner: Any?,
-    val command: Cmd,
-    val annotatedElement: AnnotatedElement
+    val parents: Array<out String>
 ) : (List<Command>) -> Boolean {
+
+    constructor(manager: CommandManager, owner: Any?, command: Cmd, annotatedElement: AnnotatedElement) :
+            this(manager, owner, command.parents)
+
     override fun invoke(p1: List<Command>): Boolean =
-        if (command.parents.isEmpty()) true
-        else command.resolveParents(manager, owner, p1) != null
+        if (parents.isEmpty()) true
+        else resolveParents(parents, manager, owner, p1) != null
 }
 
 interface ArgumentTypeStorage {
@@ -0,0 +1,283 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.reflect.env
+
+import com.github.jonathanxd.iutils.link.Invokable
+import com.github.jonathanxd.iutils.type.TypeInfo
+import com.github.jonathanxd.iutils.type.TypeInfoUtil
+import com.github.jonathanxd.iutils.type.TypeUtil
+import com.github.jonathanxd.kwcommands.argument.Argument
+import com.github.jonathanxd.kwcommands.argument.StaticListArguments
+import com.github.jonathanxd.kwcommands.command.Command
+import com.github.jonathanxd.kwcommands.command.Handler
+import com.github.jonathanxd.kwcommands.information.Information
+import com.github.jonathanxd.kwcommands.information.RequiredInformation
+import com.github.jonathanxd.kwcommands.manager.InstanceProvider
+import com.github.jonathanxd.kwcommands.reflect.ReflectionHandler
+import com.github.jonathanxd.kwcommands.reflect.element.ElementParameter
+import com.github.jonathanxd.kwcommands.reflect.element.EmptyElement
+import com.github.jonathanxd.kwcommands.reflect.element.InvokableElement
+import com.github.jonathanxd.kwcommands.reflect.element.infoComponent
+import com.github.jonathanxd.kwcommands.reflect.util.createCommand
+import com.github.jonathanxd.kwcommands.reflect.util.resolveParents
+import java.lang.reflect.ParameterizedType
+import java.lang.reflect.Type
+import java.util.Arrays
+
+/**
+ * Functions called by [command registries][com.github.jonathanxd.kwcommands.reflect.CommandRegistry] generated
+ * by `KWCommands-processor`. Each function does the same as the reflective path of [ReflectionEnvironment] for
+ * values read from annotations at build time.
+ */
+object RegistrySupport {
+
+    /**
+     * Gets instance of [klass] from [instanceProvider], like [ReflectionEnvironment.fromClass].
+     */
+    @JvmStatic
+    fun instance(instanceProvider: InstanceProvider, klass: Class<*>): Any? =
+        klass.cast(instanceProvider.checked(klass))
+
+    /**
+     * Creates [type] of a parameter with [arguments].
+     */
+    @JvmStatic
+    fun type(raw: Class<*>, vararg arguments: Type): Type =
+        if (arguments.isEmpty()) raw
+        else GeneratedParameterizedType(raw, arguments.clone())
+
+    /**
+     * Creates [TypeInfo] of a parameter [type].
+     */
+    @JvmStatic
+    fun typeInfo(type: Type): TypeInfo<*> =
+        TypeUtil.toTypeInfo(type)
+
+    /**
+     * Creates argument of a parameter annotated with [Arg][com.github.jonathanxd.kwcommands.reflect.annotation.Arg].
+     */
+    @JvmStatic
+    fun argument(
+        environment: ReflectionEnvironment,
+        name: String,
+        nameComponent: String,
+        alias: Array<String>,
+        aliasComponent: String,
+        description: String,
+        optional: Boolean,
+        type: TypeInfo<*>
+    ): Argument<*> =
+        createArgument(
+            reflectionEnvironment = environment,
+            name = name,
+            nameComponent = nameComponent,
+            alias = alias,
+            aliasComponent = aliasComponent,
+            description = description,
+            optional = optional,
+            type = type,
+            argumentType = { null },
+            requirements = emptyList(),
+            handler = null
+        )
+
+    /**
+     * Creates parameter that receives value of [argument].
+     */
+    @Suppress("UNCHECKED_CAST")
+    @JvmStatic
+    fun argumentParameter(argument: Argument<*>, type: TypeInfo<*>): ElementParameter<*> =
+        ElementParameter.ArgumentParameter(argument as Argument<Any?>, type as TypeInfo<Any?>)
+
+    /**
+     * Creates information id of a parameter annotated with
+     * [Info][com.github.jonathanxd.kwcommands.reflect.annotation.Info].
+     *
+     * @param idType Type of [Id][com.github.jonathanxd.kwcommands.reflect.annotation.Id], or `null` if not
+     * specified.
+     * @param typeLiteral Type literal of [Id][com.github.jonathanxd.kwcommands.reflect.annotation.Id].
+     * @param tags Tags of [Id][com.github.jonathanxd.kwcommands.reflect.annotation.Id].
+     */
+    @JvmStatic
+    fun informationId(
+        type: TypeInfo<*>,
+        idType: Class<*>?,
+        typeLiteral: String,
+        tags: Array<String>
+    ): Information.Id<*> =
+        if (idType == null && typeLiteral.isEmpty() && tags.isEmpty())
+            Information.Id(type.infoComponent, emptyArray())
+        else
+            Information.Id(
+                idType?.let { TypeInfo.of(it) }
+                        ?: typeLiteral.let { if (it.isEmpty()) null else TypeInfoUtil.fromFullString(it).single() }
+                        ?: type.infoComponent,
+                tags
+            )
+
+    /**
+     * Creates parameter that receives information identified by [id].
+     */
+    @Suppress("UNCHECKED_CAST")
+    @JvmStatic
+    fun informationParameter(id: Information.Id<*>, isOptional: Boolean, type: TypeInfo<*>): ElementParameter<*> =
+        ElementParameter.InformationParameter(id as Information.Id<Any?>, isOptional, type as TypeInfo<Any?>)
+
+    /**
+     * Creates handler of commands of classes without command methods.
+     */
+    @JvmStatic
+    fun emptyHandler(): Handler =
+        ReflectionHandler(EmptyElement(emptyList()))
+
+    /**
+     * Resolves handler of a command method, [invoker] calls the method directly with the values of
+     * [parameters].
+     */
+    @JvmStatic
+    fun handler(
+        environment: ReflectionEnvironment,
+        owner: Class<*>,
+        parameters: List<ElementParameter<*>>,
+        invoker: Invoker
+    ): Handler =
+        environment.resolveHandler(
+            InvokableElement(Invokable<Any?> { invoker.invoke(it) }, null, parameters, owner)
+        ) as Handler
+
+    /**
+     * Creates dependency checker of command with [parents].
+     */
+    @JvmStatic
+    fun checker(environment: ReflectionEnvironment, owner: Any?, parents: Array<String>): Checker =
+        Checker(environment.manager, owner, parents)
+
+    /**
+     * Creates command of a class.
+     */
+    @JvmStatic
+    fun command(
+        environment: ReflectionEnvironment,
+        owner: Any?,
+        parents: Array<String>,
+        superCommand: Command?,
+        order: Int,
+        name: String,
+        nameComponent: String,
+        description: String,
+        alias: Array<String>,
+        aliasComponent: String,
+        orderIndependent: Boolean,
+        handler: Handler,
+        arguments: List<Argument<*>>,
+        requiredInfo: Set<RequiredInformation>
+    ): Command =
+        createCommand(
+            manager = environment.manager,
+            owner = owner,
+            parents = parents,
+            superCommand = superCommand,
+            order = order,
+            name = name,
+            nameComponent = nameComponent,
+            description = description,
+            alias = alias,
+            aliasComponent = aliasComponent,
+            orderIndependent = orderIndependent,
+            handler = handler,
+            arguments = StaticListArguments(arguments),
+            requirements = emptyList(),
+            requiredInfo = requiredInfo
+        )
+
+    /**
+     * Creates command of a method, [parents] are resolved from [created] commands before [superCommand].
+     */
+    @JvmStatic
+    fun methodCommand(
+        environment: ReflectionEnvironment,
+        owner: Any?,
+        parents: Array<String>,
+        created: List<Command>,
+        superCommand: Command?,
+        order: Int,
+        name: String,
+        nameComponent: String,
+        description: String,
+        alias: Array<String>,
+        aliasComponent: String,
+        orderIndependent: Boolean,
+        handler: Handler,
+        arguments: List<Argument<*>>,
+        requiredInfo: Set<RequiredInformation>
+    ): Command =
+        this.command(
+            environment,
+            owner,
+            parents,
+            resolveParents(parents, environment.manager, owner, created) ?: superCommand,
+            order,
+            name,
+            nameComponent,
+            description,
+            alias,
+            aliasComponent,
+            orderIndependent,
+            handler,
+            arguments,
+            requiredInfo
+        )
+
+    /**
+     * Direct call of a command method with values of its parameters.
+     */
+    fun interface Invoker {
+        fun invoke(args: Array<out Any?>): Any?
+    }
+
+    private class GeneratedParameterizedType(
+        private val raw: Class<*>,
+        private val arguments: Array<out Type>
+    ) : ParameterizedType {
+        override fun getRawType(): Type = this.raw
+
+        override fun getActualTypeArguments(): Array<Type> = arrayOf(*this.arguments)
+
+        override fun getOwnerType(): Type? = this.raw.declaringClass
+
+        override fun equals(other: Any?): Boolean =
+            other is ParameterizedType && other.rawType == this.raw && other.ownerType == this.ownerType
+                    && Arrays.equals(other.actualTypeArguments, this.arguments)
+
+        override fun hashCode(): Int =
+            Arrays.hashCode(this.arguments) xor this.raw.hashCode() xor (this.ownerType?.hashCode() ?: 0)
+
+        override fun toString(): String =
+            this.arguments.joinToString(prefix = "${this.raw.typeName}<", postfix = ">") { it.typeName }
+    }
+}
@@ -34,12 +34,15 @@ import com.github.jonathanxd.iutils.type.TypeInfo
 import com.github.jonathanxd.iutils.type.TypeUtil
 import com.github.jonathanxd.kwcommands.argument.Argument
 import com.github.jonathanxd.kwcommands.argument.ArgumentHandler
+import com.github.jonathanxd.kwcommands.argument.Arguments
 import com.github.jonathanxd.kwcommands.argument.StaticListArguments
 import com.github.jonathanxd.kwcommands.command.Command
+import com.github.jonathanxd.kwcommands.command.CommandMetadata
 import com.github.jonathanxd.kwcommands.command.Handler
 import com.github.jonathanxd.kwcommands.information.Information
 import com.github.jonathanxd.kwcommands.information.RequiredInformation
 import com.github.jonathanxd.kwcommands.manager.CommandManager
+import com.github.jonathanxd.kwcommands.reflect.CommandFactoryQueue
 import com.github.jonathanxd.kwcommands.reflect.None
 import com.github.jonathanxd.kwcommands.reflect.ReflectionHandler
 import com.github.jonathanxd.kwcommands.reflect.annotation.*
@@ -96,7 +99,16 @@ fun <T : Any> KClass<out T>.get(base: Class<T>, baseValue: () -> T?): T? =
  * @param owner Owner of owner commands.
  */
 fun Cmd.resolveParents(manager: CommandManager, owner: Any?) =
-    this.parents.let {
+    resolveParents(this.parents, manager, owner)
+
+/**
+ * Resolve command at path [parents].
+ *
+ * @param manager Manager to lookup for parent commands.
+ * @param owner Owner of owner commands.
+ */
+fun resolveParents(parents: Array<out String>, manager: CommandManager, owner: Any?): Command? =
+    parents.let {
         if (it.isEmpty()) null else {
             var cmd = manager.getCommand(it.first(), owner)
                     ?: return null
@@ -116,13 +128,26 @@ fun Cmd.resolveParents(manager: CommandManager, owner: Any?) =
  *
  * @param manager Manager to lookup for parent commands.
  * @param owner Owner of owner commands.
- * @param other List to lookup for parent commands if it is not registered in [manager].
+ * @param other List to lookup for parent commands if it is not registered in [manager]. Lookup is constant-time if
+ * [other] is the list of created commands of a [CommandFactoryQueue].
  */
 fun Cmd.resolveParents(manager: CommandManager, owner: Any?, other: List<Command>) =
-    this.parents.let {
+    resolveParents(this.parents, manager, owner, other)
+
+/**
+ * Resolve command at path [parents].
+ *
+ * @param manager Manager to lookup for parent commands.
+ * @param owner Owner of owner commands.
+ * @param other List to lookup for parent commands if it is not registered in [manager]. Lookup is constant-time if
+ * [other] is the list of created commands of a [CommandFactoryQueue].
+ */
+fun resolveParents(parents: Array<out String>, manager: CommandManager, owner: Any?, other: List<Command>): Command? =
+    parents.let {
         if (it.isEmpty()) null else {
             var cmd = manager.getCommand(it.first(), owner)
-                    ?: other.find { (_, _, cmdName) -> cmdName == it.first() }
+                    ?: (if (other is CommandFactoryQueue.CreatedCommands) other.getByName(it.first())
+                    else other.find { (_, _, cmdName) -> cmdName == it.first() })
                     ?: return null
 
             if (it.size > 1) {
@@ -147,30 +172,69 @@ fun Cmd.toKCommand(
     reqInfo: Set<RequiredInformation>,
     owner: Any?,
     annotatedElement: AnnotatedElement
+): Command =
+    createCommand(
+        manager = manager,
+        owner = owner,
+        parents = this.parents,
+        superCommand = superCommand,
+        order = this.order,
+        name = this.getName(annotatedElement),
+        nameComponent = this.nameComponent,
+        description = this.description,
+        alias = this.alias,
+        aliasComponent = this.aliasComponent,
+        orderIndependent = this.orderIndependent,
+        handler = handler,
+        arguments = annotatedElement.getDeclaredAnnotation(DynamicArgs::class.java)?.value?.get()
+                ?: StaticListArguments(arguments),
+        requirements = this.getRequirements(annotatedElement),
+        requiredInfo = reqInfo
+    )
+
+/**
+ * Create command from values of a [Cmd] annotation, the command is added as sub-command of its parent.
+ *
+ * Used by [Cmd.toKCommand] and by [command registries][com.github.jonathanxd.kwcommands.reflect.CommandRegistry]
+ * generated at build time, so both create the same command.
+ *
+ * @param parents [Cmd.parents], resolved only from [manager].
+ * @param superCommand Parent command if [parents] is empty or cannot be resolved.
+ * @param nameComponent [Cmd.nameComponent], or empty to use [name].
+ * @param aliasComponent [Cmd.aliasComponent], or empty for no alias component.
+ */
+fun createCommand(
+    manager: CommandManager,
+    owner: Any?,
+    parents: Array<out String>,
+    superCommand: Command?,
+    order: Int,
+    name: String,
+    nameComponent: String,
+    description: String,
+    alias: Array<out String>,
+    aliasComponent: String,
+    orderIndependent: Boolean,
+    handler: Handler?,
+    arguments: Arguments,
+    requirements: List<Requirement<*, *>>,
+    requiredInfo: Set<RequiredInformation>
 ): Command {
-    val order = this.order
-    val name = this.getName(annotatedElement)
-    val nameComponent = this.nameComponent.let { if (it.isEmpty()) null else it }
-    val alias = this.alias
-    val description = this.description
-    val parent = this.resolveParents(manager, owner)
-    val argumentsInstance =
-        annotatedElement.getDeclaredAnnotation(DynamicArgs::class.java)?.value?.get()
-                ?: StaticListArguments(arguments)
-    val aliasComponent = this.aliasComponent.let { if (it.isEmpty()) null else it }?.let(TextUtil::parse)
+    val parent = resolveParents(parents, manager, owner)
 
     val cmd = Command(
         parent = parent ?: superCommand,
         order = order,
         name = name,
-        nameComponent = nameComponent?.let(TextUtil::parse) ?: Text.of(name),
+        nameComponent = nameComponent.let { if (it.isEmpty()) null else it }?.let(TextUtil::parse) ?: Text.of(name),
         description = TextUtil.parse(description),
         handler = handler,
-        arguments = argumentsInstance,
-        requirements = this.getRequirements(annotatedElement),
-        requiredInfo = reqInfo,
+        arguments = arguments,
+        requirements = requirements,
+        requiredInfo = requiredInfo,
         alias = alias.toList(),
-        aliasComponent = aliasComponent
+        aliasComponent = aliasComponent.let { if (it.isEmpty()) null else it }?.let(TextUtil::parse),
+        metadata = if (orderIndependent) mapOf(CommandMetadata.ORDER_INDEPENDENT to true) else emptyMap()
     )
 
     cmd.parent?.addSubCommand(cmd)
@@ -0,0 +1,171 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.requirement
+
+import com.github.jonathanxd.kwcommands.command.CommandContainer
+import com.github.jonathanxd.kwcommands.information.InformationProviders
+
+/**
+ * [Requirements][Requirement] compiled into a flat list of steps. Subjects are resolved once, at compilation,
+ * and evaluation only allocates when a requirement is not satisfied.
+ *
+ * Programs of [commands][com.github.jonathanxd.kwcommands.command.Command.requirementProgram] and
+ * [arguments][com.github.jonathanxd.kwcommands.argument.Argument.requirementProgram] are compiled once.
+ */
+class RequirementProgram private constructor(private val steps: Array<Step>) {
+
+    /**
+     * Whether this program has no requirement to check.
+     */
+    val isEmpty: Boolean
+        get() = this.steps.isEmpty()
+
+    /**
+     * Evaluates all requirements.
+     *
+     * @param cache Cache of [RequirementTester] results, or `null` to always call testers.
+     * @return Empty list if all requirements was satisfied or a list with unsatisfied requirements.
+     */
+    fun failures(
+        commandContainer: CommandContainer,
+        manager: InformationProviders,
+        cache: RequirementTestCache? = null
+    ): List<UnsatisfiedRequirement<*>> {
+        var fails: MutableList<UnsatisfiedRequirement<*>>? = null
+
+        for (step in this.steps) {
+            val fail = step.evaluate(commandContainer, manager, cache) ?: continue
+
+            if (fails == null)
+                fails = mutableListOf()
+
+            fails.add(fail)
+        }
+
+        return fails ?: emptyList()
+    }
+
+    /**
+     * Evaluates requirements until the first unsatisfied requirement.
+     *
+     * @param cache Cache of [RequirementTester] results, or `null` to always call testers.
+     * @return First unsatisfied requirement or `null` if all requirements was satisfied.
+     */
+    fun firstFailure(
+        commandContainer: CommandContainer,
+        manager: InformationProviders,
+        cache: RequirementTestCache? = null
+    ): UnsatisfiedRequirement<*>? {
+        for (step in this.steps) {
+            step.evaluate(commandContainer, manager, cache)?.let {
+                return it
+            }
+        }
+
+        return null
+    }
+
+    private sealed class Step {
+        abstract fun evaluate(
+            commandContainer: CommandContainer,
+            manager: InformationProviders,
+            cache: RequirementTestCache?
+        ): UnsatisfiedRequirement<*>?
+
+        class InformationStep(
+            val requirement: Requirement<Any?, *>,
+            val subject: InformationRequirementSubject<Any?>
+        ) : Step() {
+            override fun evaluate(
+                commandContainer: CommandContainer,
+                manager: InformationProviders,
+                cache: RequirementTestCache?
+            ): UnsatisfiedRequirement<*>? {
+                val find = manager.findErased<Any?>(this.subject.id)
+                        ?: return UnsatisfiedRequirement(
+                            this.requirement,
+                            this.subject,
+                            null,
+                            Reason.MISSING_INFORMATION
+                        )
+
+                return if (test(this.requirement, find.value, cache)) null
+                else UnsatisfiedRequirement(
+                    this.requirement,
+                    this.subject,
+                    find,
+                    Reason.UNSATISFIED_REQUIREMENT
+                )
+            }
+        }
+
+        class ArgumentStep(
+            val requirement: Requirement<Any?, *>,
+            val subject: ArgumentRequirementSubject<Any?>
+        ) : Step() {
+            override fun evaluate(
+                commandContainer: CommandContainer,
+                manager: InformationProviders,
+                cache: RequirementTestCache?
+            ): UnsatisfiedRequirement<*>? {
+                val arg = commandContainer.getArgument<Any?>(this.subject.name) ?: return null
+
+                return if (test(this.requirement, arg.value, cache)) null
+                else UnsatisfiedRequirement(
+                    this.requirement,
+                    this.subject,
+                    arg.value,
+                    Reason.UNSATISFIED_REQUIREMENT
+                )
+            }
+        }
+
+        protected fun test(requirement: Requirement<Any?, *>, value: Any?, cache: RequirementTestCache?): Boolean =
+            cache?.test(requirement, value) ?: requirement.test(value)
+    }
+
+    companion object {
+        private val EMPTY = RequirementProgram(emptyArray())
+
+        /**
+         * Compiles [requirements] into a [RequirementProgram].
+         */
+        @Suppress("UNCHECKED_CAST")
+        @JvmStatic
+        fun compile(requirements: List<Requirement<*, *>>): RequirementProgram =
+            if (requirements.isEmpty()) EMPTY
+            else RequirementProgram(requirements.map {
+                val requirement = it as Requirement<Any?, *>
+
+                when (val subject = requirement.subject) {
+                    is InformationRequirementSubject<Any?> -> Step.InformationStep(requirement, subject)
+                    is ArgumentRequirementSubject<Any?> -> Step.ArgumentStep(requirement, subject)
+                }
+            }.toTypedArray())
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.requirement
+
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Cache of [RequirementTester] results of a [Requirement] against a value. A cache should only live
+ * as long as tested values are not modified, [CommandDispatcherImpl][com.github.jonathanxd.kwcommands.dispatch.CommandDispatcherImpl]
+ * creates one for each dispatch.
+ *
+ * Values are compared by identity, so equal but distinct values are tested separately.
+ */
+class RequirementTestCache {
+
+    private val results = ConcurrentHashMap<Key, Boolean>()
+
+    /**
+     * Tests [value] against [requirement], or returns the result of a previous test of the same requirement and value.
+     */
+    fun <T> test(requirement: Requirement<T, *>, value: T): Boolean {
+        val key = Key(requirement, value)
+
+        return this.results[key] ?: requirement.test(value).also {
+            this.results.putIfAbsent(key, it)
+        }
+    }
+
+    private class Key(val requirement: Requirement<*, *>, val value: Any?) {
+        override fun equals(other: Any?): Boolean =
+            other is Key && other.requirement == this.requirement && other.value === this.value
+
+        override fun hashCode(): Int = 31 * this.requirement.hashCode() + System.identityHashCode(this.value)
+    }
+}
@@ -36,70 +36,11 @@ import com.github.jonathanxd.kwcommands.information.InformationProviders
  *
  * @return Empty list if all requirements was satisfied or a list with unsatisfied requirements.
  */
-@Suppress("UNCHECKED_CAST")
 fun List<Requirement<*, *>>.checkRequirements(
     commandContainer: CommandContainer,
     manager: InformationProviders
-): List<UnsatisfiedRequirement<*>> {
-    val fails = mutableListOf<UnsatisfiedRequirement<*>>()
-
-    this.forEach {
-        if (it.subject is InformationRequirementSubject<*>) {
-
-            val info = it.subject.id
-
-            val find = manager.findErased<Any?>(info)
-
-            if (find == null) {
-                fails.add(
-                    UnsatisfiedRequirement(
-                        it as Requirement<Any?, *>,
-                        it.subject,
-                        null,
-                        Reason.MISSING_INFORMATION
-                    )
-                )
-            } else {
-                @Suppress("UNCHECKED_CAST")
-                it as Requirement<Any, *>
-                @Suppress("UNCHECKED_CAST")
-                find as Information<Any>
-
-                if (!it.test(find.value))
-                    fails.add(
-                        UnsatisfiedRequirement(
-                            it,
-                            it.subject,
-                            find,
-                            Reason.UNSATISFIED_REQUIREMENT
-                        )
-                    )
-            }
-        } else if (it.subject is ArgumentRequirementSubject<*>) {
-            val arg = commandContainer.getArgument<Any?>(it.subject.name)
-
-            if (arg != null) {
-                @Suppress("UNCHECKED_CAST")
-                it as Requirement<Any?, *>
-
-                if (!it.test(arg.value))
-                    fails.add(
-                        UnsatisfiedRequirement(
-                            it,
-                            it.subject,
-                            arg.value,
-                            Reason.UNSATISFIED_REQUIREMENT
-                        )
-                    )
-            }
-        }
-
-        Unit
-
-    }
-
-    return fails
-}
+): List<UnsatisfiedRequirement<*>> =
+    RequirementProgram.compile(this).failures(commandContainer, manager)
 
 data class UnsatisfiedRequirement<T>(
     val requirement: Requirement<T, *>,
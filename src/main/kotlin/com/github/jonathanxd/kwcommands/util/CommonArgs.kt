@@ -58,8 +58,8 @@ class EnumParser<T>(val type: Class<T>) : ArgumentParser<SingleInput, T> {
         input: SingleInput,
         valueOrValidationFactory: ValueOrValidationFactory
     ): ValueOrValidation<T> =
-        (consts.firstOrNull { it.name == input.input }
-                ?: consts.firstOrNull { it.name.equals(input.input, ignoreCase = true) }).let {
+        (consts.firstOrNull { input.inputEquals(it.name) }
+                ?: consts.firstOrNull { input.inputEquals(it.name, ignoreCase = true) }).let {
             if (it == null)
                 valueOrValidationFactory.invalid()
             else
@@ -91,8 +91,9 @@ object ShortParser : ArgumentParser<SingleInput, Short> {
         input: SingleInput,
         valueOrValidationFactory: ValueOrValidationFactory
     ): ValueOrValidation<Short> =
-        input.input.toShortOrNull()?.let { valueOrValidationFactory.value(it) }
-                ?: valueOrValidationFactory.invalid()
+        if (input.isDecimal(Short.MIN_VALUE.toLong(), Short.MAX_VALUE.toLong()))
+            valueOrValidationFactory.value(input.parseDecimal().toShort())
+        else valueOrValidationFactory.invalid()
 
 }
 
@@ -106,8 +107,8 @@ object CharParser : ArgumentParser<SingleInput, Char> {
         input: SingleInput,
         valueOrValidationFactory: ValueOrValidationFactory
     ): ValueOrValidation<Char> =
-        when (input.input.length) {
-            1 -> valueOrValidationFactory.value(input.input[0])
+        when (input.inputLength) {
+            1 -> valueOrValidationFactory.value(input.inputCharAt(0))
             else -> valueOrValidationFactory.invalid()
         }
 }
@@ -123,8 +124,9 @@ object ByteParser : ArgumentParser<SingleInput, Byte> {
         input: SingleInput,
         valueOrValidationFactory: ValueOrValidationFactory
     ): ValueOrValidation<Byte> =
-        input.input.toByteOrNull()?.let { valueOrValidationFactory.value(it) }
-                ?: valueOrValidationFactory.invalid()
+        if (input.isDecimal(Byte.MIN_VALUE.toLong(), Byte.MAX_VALUE.toLong()))
+            valueOrValidationFactory.value(input.parseDecimal().toByte())
+        else valueOrValidationFactory.invalid()
 
 }
 
@@ -138,8 +140,9 @@ object IntParser : ArgumentParser<SingleInput, Int> {
         input: SingleInput,
         valueOrValidationFactory: ValueOrValidationFactory
     ): ValueOrValidation<Int> =
-        input.input.toIntOrNull()?.let { valueOrValidationFactory.value(it) }
-                ?: valueOrValidationFactory.invalid()
+        if (input.isDecimal(Int.MIN_VALUE.toLong(), Int.MAX_VALUE.toLong()))
+            valueOrValidationFactory.value(input.parseDecimal().toInt())
+        else valueOrValidationFactory.invalid()
 
 }
 
@@ -182,8 +185,9 @@ object LongParser : ArgumentParser<SingleInput, Long> {
         input: SingleInput,
         valueOrValidationFactory: ValueOrValidationFactory
     ): ValueOrValidation<Long> =
-        input.input.toLongOrNull()?.let { valueOrValidationFactory.value(it) }
-                ?: valueOrValidationFactory.invalid()
+        if (input.isDecimal(Long.MIN_VALUE, Long.MAX_VALUE))
+            valueOrValidationFactory.value(input.parseDecimal())
+        else valueOrValidationFactory.invalid()
 }
 
 object LongPossibilities : Possibilities by EmptyPossibilitesFunc
@@ -196,11 +200,14 @@ object BooleanParser : ArgumentParser<SingleInput, Boolean> {
         input: SingleInput,
         valueOrValidationFactory: ValueOrValidationFactory
     ): ValueOrValidation<Boolean> =
-        when (input.input) {
-            "true", "yes", "y", "valid" -> valueOrValidationFactory.value(true)
-            "false", "no", "n", "invalid" -> valueOrValidationFactory.value(false)
+        when {
+            TRUE_VALUES.any { input.inputEquals(it) } -> valueOrValidationFactory.value(true)
+            FALSE_VALUES.any { input.inputEquals(it) } -> valueOrValidationFactory.value(false)
             else -> valueOrValidationFactory.invalid()
         }
+
+    private val TRUE_VALUES = arrayOf("true", "yes", "y", "valid")
+    private val FALSE_VALUES = arrayOf("false", "no", "n", "invalid")
 }
 
 
@@ -220,8 +227,8 @@ class ExactStringParser(val string: String) : ArgumentParser<SingleInput, String
         input: SingleInput,
         valueOrValidationFactory: ValueOrValidationFactory
     ): ValueOrValidation<String> =
-        if (input.input == string)
-            valueOrValidationFactory.value(input.input)
+        if (input.inputEquals(string))
+            valueOrValidationFactory.value(string)
         else
             valueOrValidationFactory.invalid()
 }
@@ -253,4 +260,69 @@ object AnyParser : ArgumentParser<Input, Any> {
 
 object AnyPossibilities : Possibilities {
     override fun invoke(): List<Input> = emptyList()
-}
\ No newline at end of file
+}
+
+/**
+ * Returns true if [input][SingleInput.input] is a decimal number in range [min]..[max] (with an optional sign),
+ * following the same rules as [String.toLongOrNull].
+ *
+ * Reads chars directly from [SingleInput] instead of creating the input string. Parsed values are still boxed
+ * afterwards: [ValueOrValidation], argument containers and handler invocation are `Object`-based, so there
+ * is no primitive path from the parser to handler parameters.
+ */
+fun SingleInput.isDecimal(min: Long, max: Long): Boolean {
+    val length = this.inputLength
+
+    if (length == 0)
+        return false
+
+    val first = this.inputCharAt(0)
+    val negative = first == '-'
+    var index = 0
+
+    if (first == '-' || first == '+') {
+        if (length == 1)
+            return false
+        index = 1
+    }
+
+    val limit = if (negative) Long.MIN_VALUE else -Long.MAX_VALUE
+    val limitBeforeMul = limit / 10
+    var result = 0L
+
+    // Accumulates negatively to handle Long.MIN_VALUE, like Long.parseLong.
+    while (index < length) {
+        val digit = Character.digit(this.inputCharAt(index++), 10)
+
+        if (digit < 0 || result < limitBeforeMul)
+            return false
+
+        result *= 10
+
+        if (result < limit + digit)
+            return false
+
+        result -= digit
+    }
+
+    val value = if (negative) result else -result
+
+    return value in min..max
+}
+
+/**
+ * Parses decimal number of [input][SingleInput.input]. The result is undefined if the input is not
+ * a [decimal number][isDecimal].
+ */
+fun SingleInput.parseDecimal(): Long {
+    val length = this.inputLength
+    val first = this.inputCharAt(0)
+    val negative = first == '-'
+    var index = if (first == '-' || first == '+') 1 else 0
+    var result = 0L
+
+    while (index < length)
+        result = result * 10 - Character.digit(this.inputCharAt(index++), 10)
+
+    return if (negative) result else -result
+}
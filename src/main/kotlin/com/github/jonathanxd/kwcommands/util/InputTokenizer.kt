@@ -0,0 +1,171 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.util
+
+import com.github.jonathanxd.iutils.`object`.Either
+import com.github.jonathanxd.iutils.kt.left
+import com.github.jonathanxd.iutils.kt.right
+import com.github.jonathanxd.kwcommands.parser.Input
+import com.github.jonathanxd.kwcommands.parser.SingleInput
+
+/**
+ * Tokenizer of inputs. This tokenizer produces the same inputs as [parseSingleInput], but
+ * plain tokens (tokens without escapes, quotes, maps and lists) are read in a single pass
+ * over the source string, using int indexes and a precomputed table of character classes,
+ * and are produced as [regions][SingleInput.of] of the source string instead of being copied
+ * char by char into a builder.
+ *
+ * Other tokens are delegated to [parseSingleInput].
+ */
+class InputTokenizer @JvmOverloads constructor(
+    val escape: Char = '\\',
+    separators: CharArray = charArrayOf(' '),
+    openCloseChars: CharArray = charArrayOf('"', '\''),
+    mapDefineChar: CharArray = charArrayOf(':', '='),
+    listMapSeparators: CharArray = charArrayOf(',')
+) {
+
+    private val separators = separators.toList()
+    private val openCloseChars = openCloseChars.toList()
+    private val mapDefineChar = mapDefineChar.toList()
+    private val listMapSeparators = listMapSeparators.toList()
+    private val table = ByteArray(TABLE_SIZE) { this.computeClass(it.toChar()) }
+
+    /**
+     * Reads next input from [iter].
+     *
+     * @param parseData Whether lists and maps should be parsed.
+     * @see parseSingleInput
+     */
+    fun tokenize(iter: SourcedCharIterator, parseData: Boolean): Either<InputParseFail, out Input> {
+        val token = Token()
+
+        return if (this.tokenize(iter, parseData, token)) right(token.input!!)
+        else left(token.fail!!)
+    }
+
+    /**
+     * Reads next input from [iter] into [token], which may be reused between calls. Plain tokens are read
+     * without allocating anything other than the input.
+     *
+     * @param parseData Whether lists and maps should be parsed.
+     * @return `true` if an [input][Token.input] was read, `false` if the input [failed][Token.fail] to parse.
+     * @see parseSingleInput
+     */
+    fun tokenize(iter: SourcedCharIterator, parseData: Boolean, token: Token): Boolean {
+        iter.jumpBlankSpace()
+
+        if (iter is IndexedSourcedCharIter && iter.hasNext()) {
+            val source = iter.input
+            val start = iter.pos
+            val end = this.scanPlain(source, start, parseData)
+
+            if (end > start) {
+                iter.restore(end)
+                return token.set(SingleInput.of(source, start, end - 1), null)
+            }
+        }
+
+        val parse = iter.parseSingleInput(
+            this.escape,
+            this.separators,
+            this.openCloseChars,
+            this.mapDefineChar,
+            this.listMapSeparators,
+            parseData
+        )
+
+        return if (parse.isRight) token.set(parse.right, null)
+        else token.set(null, parse.left)
+    }
+
+    /**
+     * Scans plain characters of [source] starting at [start].
+     *
+     * @return Index of the separator that ends the token (or length of [source] if the token ends with the source),
+     * or `-1` if the token is not plain.
+     */
+    private fun scanPlain(source: String, start: Int, parseData: Boolean): Int {
+        var index = start
+        val length = source.length
+
+        while (index < length) {
+            when (this.classOf(source[index])) {
+                PLAIN -> ++index
+                SEPARATOR -> return index
+                DATA_OPEN -> if (parseData) return -1 else ++index
+                else -> return -1
+            }
+        }
+
+        return index
+    }
+
+    private fun classOf(ch: Char): Byte {
+        val code = ch.toInt()
+        return if (code < TABLE_SIZE) this.table[code] else this.computeClass(ch)
+    }
+
+    private fun computeClass(ch: Char): Byte = when {
+        ch == this.escape || this.openCloseChars.contains(ch) -> SPECIAL
+        this.separators.contains(ch) -> SEPARATOR
+        ch == MAP_OPEN || ch == LIST_OPEN -> DATA_OPEN
+        else -> PLAIN
+    }
+
+    /**
+     * Result of [tokenize], either the read [input] or the [fail] of the input.
+     */
+    class Token {
+        var input: Input? = null
+            private set
+        var fail: InputParseFail? = null
+            private set
+
+        internal fun set(input: Input?, fail: InputParseFail?): Boolean {
+            this.input = input
+            this.fail = fail
+            return input != null
+        }
+    }
+
+    companion object {
+        private const val TABLE_SIZE = 128
+
+        private const val PLAIN: Byte = 0
+        private const val SEPARATOR: Byte = 1
+        private const val DATA_OPEN: Byte = 2
+        private const val SPECIAL: Byte = 3
+
+        /**
+         * Tokenizer with default characters of [parseSingleInput].
+         */
+        @JvmField
+        val DEFAULT = InputTokenizer()
+    }
+}
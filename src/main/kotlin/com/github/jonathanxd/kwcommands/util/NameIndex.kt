@@ -0,0 +1,161 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.util
+
+import com.github.jonathanxd.iutils.kt.get
+import com.github.jonathanxd.iutils.localization.Locale
+import com.github.jonathanxd.iutils.text.localizer.Localizer
+import com.github.jonathanxd.iutils.text.localizer.TextLocalizer
+import com.github.jonathanxd.kwcommands.NamedAndAliased
+
+/**
+ * Sorted index of names used to find all names that starts with a prefix.
+ *
+ * Names are kept in a sorted array, so [withPrefix] only visits the names that matches the prefix.
+ * Matches are returned in the order that names were provided.
+ */
+class NameIndex<out T>(names: List<Pair<String, T>>) {
+
+    private val ordered: List<Entry<T>> = names.mapIndexed { index, (name, value) -> Entry(name, value, index) }
+    private val sorted: Array<Entry<T>> = this.ordered.sortedBy { it.name }.toTypedArray()
+    private val values: Set<T> = names.mapTo(HashSet()) { it.second }
+
+    /**
+     * All entries in the order they were provided.
+     */
+    val entries: List<Entry<T>>
+        get() = this.ordered
+
+    /**
+     * Returns true if [value] is indexed.
+     */
+    fun containsValue(value: @UnsafeVariance T): Boolean =
+        this.values.contains(value)
+
+    /**
+     * Gets all entries with name starting with [prefix], in the order they were provided.
+     */
+    fun withPrefix(prefix: String): List<Entry<T>> {
+        var from = this.lowerBound(prefix)
+
+        if (from == this.sorted.size || !this.sorted[from].name.startsWith(prefix))
+            return emptyList()
+
+        val found = mutableListOf<Entry<T>>()
+
+        while (from < this.sorted.size && this.sorted[from].name.startsWith(prefix))
+            found += this.sorted[from++]
+
+        found.sortBy { it.ordinal }
+
+        return found
+    }
+
+    private fun lowerBound(prefix: String): Int {
+        var low = 0
+        var high = this.sorted.size
+
+        while (low < high) {
+            val mid = (low + high) ushr 1
+
+            if (this.sorted[mid].name < prefix) low = mid + 1
+            else high = mid
+        }
+
+        return low
+    }
+
+    class Entry<out T>(val name: String, val value: T, val ordinal: Int)
+
+    companion object {
+        /**
+         * Creates index of [names][NamedAndAliased.completionNames] of all [elements].
+         */
+        @JvmStatic
+        fun <T : NamedAndAliased> create(elements: Iterable<T>, localizer: Localizer?): NameIndex<T> =
+            NameIndex(elements.flatMap { element -> element.completionNames(localizer).map { it to element } })
+    }
+}
+
+/**
+ * Names used to complete [NamedAndAliased]: the name, aliases, and if [localizer] is provided,
+ * the localized name and aliases.
+ */
+fun NamedAndAliased.completionNames(localizer: Localizer?): List<String> {
+    val completions = mutableListOf<String>()
+    completions += this.name
+    completions += this.alias
+
+    localizer?.let { loc ->
+        loc[this.nameComponent].let {
+            if (it != this.name)
+                completions += it
+        }
+        this.aliasComponent?.let(loc::getLocalizations)?.let {
+            completions += it.map { loc[it] }
+        }
+    }
+
+    return completions
+}
+
+/**
+ * Caches [NameIndex] created by [factory] for the unlocalized names and for the last
+ * [TextLocalizer] and [locale][TextLocalizer.getLocale] used.
+ */
+internal class NameIndexCache<T>(private val factory: (localizer: Localizer?) -> NameIndex<T>) {
+
+    @Volatile
+    private var unlocalized: NameIndex<T>? = null
+
+    @Volatile
+    private var localized: Localized<T>? = null
+
+    operator fun get(localizer: Localizer?): NameIndex<T> {
+        if (localizer == null)
+            return this.unlocalized ?: this.factory(null).also { this.unlocalized = it }
+
+        if (localizer !is TextLocalizer)
+            return this.factory(localizer)
+
+        val locale = localizer.locale
+        val cached = this.localized
+
+        if (cached != null && cached.localizer === localizer && cached.locale === locale)
+            return cached.index
+
+        return this.factory(localizer).also { this.localized = Localized(localizer, locale, it) }
+    }
+
+    fun clear() {
+        this.unlocalized = null
+        this.localized = null
+    }
+
+    private class Localized<T>(val localizer: TextLocalizer, val locale: Locale?, val index: NameIndex<T>)
+}
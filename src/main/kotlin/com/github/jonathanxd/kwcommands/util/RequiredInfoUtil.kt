@@ -31,6 +31,7 @@ import com.github.jonathanxd.kwcommands.information.InformationProviders
 import com.github.jonathanxd.kwcommands.information.RequiredInformation
 
 fun Set<RequiredInformation>.checkRequiredInfo(manager: InformationProviders): List<MissingInformation> =
-    this.filter { manager.find(it.id, it.useProviders) == null }.map(::MissingInformation)
+    if (this.isEmpty()) emptyList()
+    else this.filter { manager.find(it.id, it.useProviders) == null }.map(::MissingInformation)
 
 data class MissingInformation(val requiredInfo: RequiredInformation)
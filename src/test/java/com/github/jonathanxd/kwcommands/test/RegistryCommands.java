@@ -0,0 +1,78 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.test;
+
+import com.github.jonathanxd.kwcommands.command.CommandContainer;
+import com.github.jonathanxd.kwcommands.command.CommandContext;
+import com.github.jonathanxd.kwcommands.information.Information;
+import com.github.jonathanxd.kwcommands.manager.CommandManager;
+import com.github.jonathanxd.kwcommands.reflect.annotation.Arg;
+import com.github.jonathanxd.kwcommands.reflect.annotation.Cmd;
+import com.github.jonathanxd.kwcommands.reflect.annotation.CmdContainer;
+import com.github.jonathanxd.kwcommands.reflect.annotation.Ctx;
+import com.github.jonathanxd.kwcommands.reflect.annotation.GenerateRegistry;
+import com.github.jonathanxd.kwcommands.reflect.annotation.Id;
+import com.github.jonathanxd.kwcommands.reflect.annotation.Info;
+
+/**
+ * Commands registered through generated {@code RegistryCommands_CommandRegistry}.
+ */
+@GenerateRegistry
+@Cmd(name = "registry", description = "Registry commands", alias = "reg")
+public class RegistryCommands {
+
+    @Cmd(description = "Sums numbers", alias = {"add", "plus"})
+    public int sum(@Arg("a") int a, @Arg("b") int b) {
+        return a + b;
+    }
+
+    @Cmd(order = 1, name = "say", nameComponent = "say.name")
+    public String say(@Arg(value = "text", description = "Text to say") String text,
+                      @Arg(value = "suffix", alias = "s", optional = true) String suffix,
+                      @Info(value = @Id(value = String.class, tags = "prefix"), isOptional = true) String prefix) {
+        return (prefix == null ? "" : prefix) + text + (suffix == null ? "" : suffix);
+    }
+
+    @Cmd(name = "context", parents = "registry")
+    public String context(@Ctx CommandContext context,
+                          @CmdContainer CommandContainer container,
+                          @Info(isOptional = true) Information<CommandManager> manager) {
+        return container.getCommand().getName();
+    }
+
+    @Cmd(name = "nested", orderIndependent = true)
+    public static class Nested {
+
+        @Cmd
+        public String echo(@Arg("text") String text) {
+            return text;
+        }
+
+    }
+
+}
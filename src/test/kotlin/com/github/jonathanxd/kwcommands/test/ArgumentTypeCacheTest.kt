@@ -0,0 +1,62 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.test
+
+import com.github.jonathanxd.iutils.kt.typeInfo
+import com.github.jonathanxd.kwcommands.manager.CommandManagerImpl
+import com.github.jonathanxd.kwcommands.reflect.env.ConcreteProvider
+import com.github.jonathanxd.kwcommands.reflect.env.ReflectionEnvironment
+import com.github.jonathanxd.kwcommands.util.stringArgumentType
+import org.junit.Assert
+import org.junit.Test
+
+class ArgumentTypeCacheTest {
+
+    @Test
+    fun test() {
+        val environment = ReflectionEnvironment(CommandManagerImpl())
+        val cache = environment.argumentTypeCache
+
+        val first = environment.get(typeInfo<List<String>>())
+        val misses = cache.misses
+
+        Assert.assertSame(first, environment.get(typeInfo<List<String>>()))
+        Assert.assertEquals(misses, cache.misses)
+        Assert.assertTrue(cache.hits > 0)
+
+        val generation = cache.generation
+        environment.registerProvider(ConcreteProvider(stringArgumentType))
+
+        Assert.assertTrue(cache.generation > generation)
+        Assert.assertEquals(0, cache.size)
+
+        environment.get(typeInfo<List<String>>())
+
+        Assert.assertTrue(cache.misses > misses)
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.test
+
+import com.github.jonathanxd.kwcommands.command.CommandContainer
+import com.github.jonathanxd.kwcommands.command.CommandMetadata
+import com.github.jonathanxd.kwcommands.dispatch.DispatchExecutors
+import com.github.jonathanxd.kwcommands.dispatch.DispatchHandler
+import com.github.jonathanxd.kwcommands.dispatch.DispatcherOptions
+import com.github.jonathanxd.kwcommands.dsl.command
+import com.github.jonathanxd.kwcommands.information.InformationProvidersVoid
+import com.github.jonathanxd.kwcommands.interceptor.CommandInterceptor
+import com.github.jonathanxd.kwcommands.manager.CommandManagerImpl
+import com.github.jonathanxd.kwcommands.processor.CommandResult
+import com.github.jonathanxd.kwcommands.processor.ConcurrencyLimitResult
+import com.github.jonathanxd.kwcommands.processor.Processors
+import com.github.jonathanxd.kwcommands.processor.ValueResult
+import org.junit.Assert
+import org.junit.Test
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class AsyncDispatchTest {
+
+    @Test
+    fun test() {
+        val manager = CommandManagerImpl()
+        val processor = Processors.createCommonProcessor(manager)
+        val executor = Executors.newSingleThreadExecutor()
+        val caller = Thread.currentThread()
+        val events = Collections.synchronizedList(mutableListOf<String>())
+
+        manager.registerCommand(command {
+            name { "slow" }
+            handlerWithContext {
+                Assert.assertNotSame(caller, Thread.currentThread())
+                events += "handle"
+                "done"
+            }
+        }, this)
+
+        processor.registerInterceptor(object : CommandInterceptor {
+            override fun pre(original: CommandContainer, current: CommandContainer): CommandContainer? {
+                events += "pre"
+                return current
+            }
+
+            override fun post(original: CommandContainer, final: CommandContainer, results: List<CommandResult>) {
+                events += "post"
+            }
+        })
+
+        processor.dispatcher.registerDispatchHandler(object : DispatchHandler {
+            override fun handle(result: List<CommandResult>) {
+                events += "dispatched"
+            }
+        })
+
+        val future = processor.parseAndDispatchAsync("slow", this, InformationProvidersVoid, executor)
+
+        Assert.assertTrue(future.isRight)
+
+        val results = future.right.get(10, TimeUnit.SECONDS)
+
+        Assert.assertEquals(1, results.size)
+        Assert.assertEquals("done", (results.single() as ValueResult).value)
+        Assert.assertEquals(listOf("pre", "handle", "post", "dispatched"), events)
+
+        executor.shutdown()
+    }
+
+    @Test
+    fun concurrencyLimit() {
+        val manager = CommandManagerImpl()
+        val processor = Processors.createCommonProcessor(manager)
+        val executor = DispatchExecutors.newVirtualThreadExecutor(8)
+        val running = AtomicInteger()
+        val maxRunning = AtomicInteger()
+
+        manager.registerCommand(command {
+            name { "backup" }
+            metadata {
+                put(CommandMetadata.MAX_CONCURRENT_DISPATCHES, 2)
+            }
+            handlerWithContext {
+                val current = running.incrementAndGet()
+                maxRunning.accumulateAndGet(current) { a, b -> maxOf(a, b) }
+                Thread.sleep(20)
+                running.decrementAndGet()
+            }
+        }, this)
+
+        val futures = (0 until 8).map {
+            processor.parseAndDispatchAsync("backup", this, InformationProvidersVoid, executor).right
+        }
+
+        futures.forEach { it.get(10, TimeUnit.SECONDS) }
+        executor.shutdown()
+
+        Assert.assertTrue(maxRunning.get() <= 2)
+    }
+
+    @Test
+    fun concurrencyLimitRejectsSynchronousDispatch() {
+        val manager = CommandManagerImpl()
+        val processor = Processors.createCommonProcessor(manager)
+        var inner: List<CommandResult> = emptyList()
+
+        manager.registerCommand(command {
+            name { "save" }
+            metadata {
+                put(CommandMetadata.MAX_CONCURRENT_DISPATCHES, 1)
+            }
+            handlerWithContext {
+                // Dispatching again while holding the only permit
+                if (inner.isEmpty())
+                    inner = processor.parseAndDispatch("save", null).right
+
+                Unit
+            }
+        }, this)
+
+        processor.parseAndDispatch("save", this)
+
+        Assert.assertEquals(1, (inner.single() as ConcurrencyLimitResult).maxConcurrentDispatches)
+    }
+
+    @Test
+    fun concurrencyLimitSharedByCopies() {
+        val manager = CommandManagerImpl()
+        val processor = Processors.createCommonProcessor(manager)
+        val executor = Executors.newSingleThreadExecutor()
+        val started = CountDownLatch(1)
+        val release = CountDownLatch(1)
+
+        val original = command {
+            name { "export" }
+            metadata {
+                put(CommandMetadata.MAX_CONCURRENT_DISPATCHES, 1)
+            }
+            handlerWithContext {
+                started.countDown()
+                release.await(10, TimeUnit.SECONDS)
+            }
+        }
+        val copy = original.copy()
+
+        val running = processor.dispatchAsync(listOf(CommandContainer(original, emptyList(), original.handler)),
+            InformationProvidersVoid, executor)
+
+        Assert.assertTrue(started.await(10, TimeUnit.SECONDS))
+
+        val rejected = processor.dispatch(listOf(CommandContainer(copy, emptyList(), copy.handler)))
+
+        release.countDown()
+        running.get(10, TimeUnit.SECONDS)
+        executor.shutdown()
+
+        Assert.assertEquals(1, (rejected.single() as ConcurrencyLimitResult).maxConcurrentDispatches)
+    }
+
+    @Test
+    fun orderIndependent() {
+        val manager = CommandManagerImpl()
+        val processor = Processors.createCommonProcessor(manager)
+        val executor = Executors.newFixedThreadPool(2)
+        val latch = CountDownLatch(2)
+        val events = Collections.synchronizedList(mutableListOf<String>())
+
+        processor.dispatcher.options.set(DispatcherOptions.INDEPENDENT_COMMANDS_EXECUTOR, executor)
+
+        listOf("first", "second").forEach { commandName ->
+            manager.registerCommand(command {
+                name { commandName }
+                metadata {
+                    put(CommandMetadata.ORDER_INDEPENDENT, true)
+                }
+                handlerWithContext {
+                    latch.countDown()
+                    // Only completes if both commands are running at the same time
+                    latch.await(10, TimeUnit.SECONDS)
+                }
+            }, this)
+        }
+
+        processor.registerInterceptor(object : CommandInterceptor {
+            override val isThreadSafe: Boolean
+                get() = true
+
+            override fun pre(original: CommandContainer, current: CommandContainer): CommandContainer? {
+                events += "pre ${current.command.name}"
+                return current
+            }
+
+            override fun post(original: CommandContainer, final: CommandContainer, results: List<CommandResult>) {
+                events += "post ${final.command.name}"
+            }
+        })
+
+        val results = processor.parseAndDispatch("first & second", this).right
+
+        executor.shutdown()
+
+        Assert.assertEquals(
+            listOf("first", "second"),
+            results.map { (it.container as CommandContainer).command.name }
+        )
+        Assert.assertEquals(listOf(true, true), results.map { (it as ValueResult).value })
+        Assert.assertTrue(events.indexOf("pre first") < events.indexOf("post first"))
+        Assert.assertTrue(events.indexOf("pre second") < events.indexOf("post second"))
+    }
+
+    @Test
+    fun orderIndependentInBoundedExecutor() {
+        val manager = CommandManagerImpl()
+        val processor = Processors.createCommonProcessor(manager)
+        val executor = DispatchExecutors.newBoundedExecutor(2)
+        val dispatched = AtomicInteger()
+
+        processor.dispatcher.options.set(DispatcherOptions.EXECUTOR, executor)
+
+        listOf("first", "second").forEach { commandName ->
+            manager.registerCommand(command {
+                name { commandName }
+                metadata {
+                    put(CommandMetadata.ORDER_INDEPENDENT, true)
+                }
+                handlerWithContext {
+                    Thread.sleep(5)
+                    dispatched.incrementAndGet()
+                }
+            }, this)
+        }
+
+        // Every thread of the executor runs a dispatch that waits for its order independent commands
+        val futures = (0 until 8).map {
+            processor.parseAndDispatchAsync("first & second", this).right
+        }
+
+        futures.forEach { it.get(10, TimeUnit.SECONDS) }
+        executor.shutdown()
+
+        Assert.assertEquals(16, dispatched.get())
+    }
+}
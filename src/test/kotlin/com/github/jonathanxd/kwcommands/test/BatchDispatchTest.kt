@@ -0,0 +1,158 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.test
+
+import com.github.jonathanxd.kwcommands.command.CommandMetadata
+import com.github.jonathanxd.kwcommands.dispatch.DispatchExecutors
+import com.github.jonathanxd.kwcommands.dsl.command
+import com.github.jonathanxd.kwcommands.dsl.intArg
+import com.github.jonathanxd.kwcommands.information.InformationProvidersVoid
+import com.github.jonathanxd.kwcommands.manager.CommandManagerImpl
+import com.github.jonathanxd.kwcommands.processor.BatchOrder
+import com.github.jonathanxd.kwcommands.processor.Processors
+import com.github.jonathanxd.kwcommands.processor.ValueResult
+import org.junit.Assert
+import org.junit.Test
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.TimeUnit
+
+class BatchDispatchTest {
+
+    @Test
+    fun test() {
+        val manager = CommandManagerImpl()
+        val processor = Processors.createCommonProcessor(manager)
+
+        manager.registerCommand(command {
+            name { "square" }
+            arguments {
+                staticListArguments {
+                    +intArg {
+                        name { "n" }
+                    }
+                }
+            }
+            handlerWithContext {
+                val n: Int = it.getArg("n")
+                n * n
+            }
+        }, this)
+
+        val lines = (0 until 100).map { if (it % 10 == 9) "unknown" else "square $it" }
+
+        BatchOrder.values().forEach { order ->
+            val result = processor.parseAndDispatchAll(
+                lines,
+                this,
+                InformationProvidersVoid,
+                null,
+                order,
+                ForkJoinPool.commonPool()
+            )
+
+            Assert.assertEquals(lines.size, result.size)
+
+            lines.indices.forEach { line ->
+                if (line % 10 == 9) {
+                    Assert.assertTrue(result.isFailed(line))
+                    Assert.assertTrue(result.getResults(line).isEmpty())
+                } else {
+                    Assert.assertEquals(listOf(line * line), result.getResults(line).map { (it as ValueResult).value })
+                }
+            }
+        }
+    }
+
+    @Test
+    fun sequentialSeesPreviousLines() {
+        val owner = this
+        val manager = CommandManagerImpl()
+        val processor = Processors.createCommonProcessor(manager)
+        val late = command {
+            name { "late" }
+            handler { _, _, _ -> "late" }
+        }
+
+        manager.registerCommand(command {
+            name { "register" }
+            handler { _, _, _ ->
+                manager.registerCommand(late, owner)
+            }
+        }, owner)
+
+        val lines = listOf("register", "late")
+
+        val ahead = processor.parseAndDispatchAll(
+            lines, owner, InformationProvidersVoid, null, BatchOrder.PARSE_AHEAD, ForkJoinPool.commonPool()
+        )
+
+        Assert.assertTrue(ahead.isFailed(1))
+
+        manager.unregisterCommand(late, owner)
+
+        val sequential = processor.parseAndDispatchAll(
+            lines, owner, InformationProvidersVoid, null, BatchOrder.SEQUENTIAL, ForkJoinPool.commonPool()
+        )
+
+        Assert.assertFalse(sequential.isFailed(1))
+        Assert.assertEquals(listOf("late"), sequential.getResults(1).map { (it as ValueResult).value })
+    }
+
+    @Test
+    fun concurrentInBoundedExecutor() {
+        val manager = CommandManagerImpl()
+        val processor = Processors.createCommonProcessor(manager)
+        val executor = DispatchExecutors.newBoundedExecutor(1)
+
+        listOf("first", "second").forEach { commandName ->
+            manager.registerCommand(command {
+                name { commandName }
+                metadata {
+                    put(CommandMetadata.ORDER_INDEPENDENT, true)
+                }
+                handlerWithContext {
+                    commandName
+                }
+            }, this)
+        }
+
+        val lines = (0 until 16).map { "first & second" }
+
+        // Batch runs in the only thread of the executor it dispatches chunks in
+        val result = CompletableFuture.supplyAsync({
+            processor.parseAndDispatchAll(lines, this, InformationProvidersVoid, null, BatchOrder.CONCURRENT, executor)
+        }, executor).get(10, TimeUnit.SECONDS)
+
+        executor.shutdown()
+
+        lines.indices.forEach { line ->
+            Assert.assertEquals(listOf("first", "second"), result.getResults(line).map { (it as ValueResult).value })
+        }
+    }
+}
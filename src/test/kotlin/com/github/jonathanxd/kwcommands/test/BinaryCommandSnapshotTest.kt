@@ -0,0 +1,115 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.test
+
+import com.github.jonathanxd.iutils.kt.textOf
+import com.github.jonathanxd.kwcommands.dsl.*
+import com.github.jonathanxd.kwcommands.manager.BinaryCommandSnapshot
+import com.github.jonathanxd.kwcommands.manager.KeyedSnapshotBindings
+import com.github.jonathanxd.kwcommands.util.stringArgumentType
+import org.junit.Assert
+import org.junit.Test
+import java.io.DataOutputStream
+import java.nio.file.Files
+
+class BinaryCommandSnapshotTest {
+
+    @Test
+    fun test() {
+        val helloDescription = textOf("Says hello")
+        val owner = "owner"
+
+        val hello = command {
+            name { "hello" }
+            alias { +"hi" }
+            description { helloDescription }
+            arguments {
+                staticListArguments {
+                    +stringArg { name { "name" } }
+                }
+            }
+        }
+
+        hello.addSubCommand(command {
+            parent = hello
+            name { "world" }
+            description { helloDescription }
+        })
+
+        val bindings = KeyedSnapshotBindings()
+            .bind("owner", owner)
+            .bind("string", stringArgumentType)
+
+        val file = Files.createTempFile("commands", ".kwcs")
+
+        try {
+            var builds = 0
+            val build = { builds++; listOf(hello to owner) }
+
+            BinaryCommandSnapshot.loadOrBuild(file, 1L, bindings, build)
+            val loaded = BinaryCommandSnapshot.loadOrBuild(file, 1L, bindings, build)
+
+            Assert.assertEquals(1, builds)
+
+            val (command, loadedOwner) = loaded.single()
+
+            Assert.assertEquals(owner, loadedOwner)
+            Assert.assertEquals("hello", command.name)
+            Assert.assertEquals(listOf("hi"), command.alias)
+            Assert.assertEquals(helloDescription, command.description)
+            Assert.assertSame(stringArgumentType, command.arguments.all.single().argumentType)
+            Assert.assertEquals("world", command.subCommands.single().name)
+            Assert.assertSame(command, command.subCommands.single().parent)
+
+            BinaryCommandSnapshot.loadOrBuild(file, 2L, bindings, build)
+
+            Assert.assertEquals(2, builds)
+        } finally {
+            Files.deleteIfExists(file)
+        }
+    }
+
+    @Test
+    fun corrupt() {
+        val file = Files.createTempFile("commands", ".kwcs")
+
+        try {
+            DataOutputStream(Files.newOutputStream(file)).use {
+                it.writeInt(0x4B574353)
+                it.writeInt(2)
+                it.writeLong(1L)
+                it.writeInt(1)
+                it.writeInt(Int.MAX_VALUE)
+            }
+
+            Assert.assertNull(BinaryCommandSnapshot.read(file, 1L, KeyedSnapshotBindings()))
+        } finally {
+            Files.deleteIfExists(file)
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.test
+
+import com.github.jonathanxd.kwcommands.dsl.command
+import com.github.jonathanxd.kwcommands.manager.CommandManagerImpl
+import com.github.jonathanxd.kwcommands.util.KLocale
+import org.junit.Assert
+import org.junit.Test
+
+class CommandIndexTest {
+
+    @Test
+    fun test() {
+        val manager = CommandManagerImpl()
+        val owner = Any()
+
+        val cmd = command {
+            name { "example" }
+            alias {
+                +"ex"
+            }
+        }
+
+        manager.registerCommand(cmd, this)
+        manager.registerCommand(command {
+            name { "other" }
+        }, owner)
+
+        val sub = command {
+            parent = cmd
+            name { "sub" }
+        }
+
+        manager.registerCommand(sub, this)
+
+        Assert.assertEquals(cmd, manager.getCommand("example", this, null))
+        Assert.assertEquals(cmd, manager.getCommand("ex", this, KLocale.localizer))
+        Assert.assertNull(manager.getCommand("ex", this, null))
+        Assert.assertNull(manager.getCommand("other", this, null))
+        Assert.assertNotNull(manager.getCommand("other", null, null))
+        Assert.assertEquals(sub, manager.getSubCommand(cmd, "sub", null))
+        Assert.assertEquals(sub, manager.findCommand("sub", this, null))
+        Assert.assertTrue(manager.isRegistered(cmd, this))
+
+        manager.unregisterCommand(cmd, this)
+
+        Assert.assertNull(manager.getCommand("example", null, null))
+        Assert.assertNull(manager.findCommand("sub", null, null))
+        Assert.assertFalse(manager.isRegistered(cmd, null))
+
+        manager.unregisterAllCommandsOfOwner(owner)
+
+        Assert.assertNull(manager.getCommand("other", null, null))
+    }
+
+    @Test
+    fun subCommandsOfRegisteredTree() {
+        val manager = CommandManagerImpl()
+
+        val cmd = command {
+            name { "example" }
+        }
+
+        val unrelated = command {
+            name { "unrelated" }
+        }
+
+        manager.registerCommand(cmd, this)
+
+        Assert.assertNull(manager.findCommand("sub", this, null))
+
+        unrelated.addSubCommand(command {
+            name { "other" }
+        })
+
+        Assert.assertNull(manager.findCommand("other", this, null))
+
+        val sub = command {
+            parent = cmd
+            name { "sub" }
+        }
+
+        cmd.addSubCommand(sub)
+
+        Assert.assertEquals(sub, manager.findCommand("sub", this, null))
+
+        cmd.removeSubCommand(sub)
+
+        Assert.assertNull(manager.findCommand("sub", this, null))
+    }
+}
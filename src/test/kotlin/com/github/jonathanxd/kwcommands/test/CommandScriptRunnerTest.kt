@@ -0,0 +1,91 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.test
+
+import com.github.jonathanxd.kwcommands.dsl.command
+import com.github.jonathanxd.kwcommands.dsl.intArg
+import com.github.jonathanxd.kwcommands.help.CommonHelpInfoHandler
+import com.github.jonathanxd.kwcommands.manager.CommandManagerImpl
+import com.github.jonathanxd.kwcommands.printer.CommonPrinter
+import com.github.jonathanxd.kwcommands.processor.CommandScriptRunner
+import com.github.jonathanxd.kwcommands.processor.Processors
+import com.github.jonathanxd.kwcommands.util.KLocale
+import org.junit.Assert
+import org.junit.Test
+import java.nio.file.Files
+
+class CommandScriptRunnerTest {
+
+    @Test
+    fun test() {
+        val manager = CommandManagerImpl()
+        val processor = Processors.createCommonProcessor(manager)
+        val output = mutableListOf<String>()
+        val printer = CommonPrinter(KLocale.localizer, { output += it })
+        var sum = 0
+
+        manager.registerCommand(command {
+            name { "add" }
+            arguments {
+                staticListArguments {
+                    +intArg {
+                        name { "n" }
+                    }
+                }
+            }
+            handlerWithContext {
+                val n: Int = it.getArg("n")
+                sum += n
+                sum
+            }
+        }, this)
+
+        val script = Files.createTempFile("kwcommands", ".script")
+
+        try {
+            Files.write(script, listOf(
+                "# sums numbers",
+                "add 1",
+                "",
+                "  add 2\r",
+                "unknown",
+                "add 3 & add 4"
+            ))
+
+            val result = CommandScriptRunner(processor, CommonHelpInfoHandler(), printer).run(script, this)
+
+            Assert.assertEquals(4, result.lines)
+            Assert.assertEquals(1, result.failedLines)
+            Assert.assertEquals(10, sum)
+            Assert.assertTrue(output.any { it.contains("Line 5:") })
+        } finally {
+            Files.delete(script)
+        }
+    }
+
+}
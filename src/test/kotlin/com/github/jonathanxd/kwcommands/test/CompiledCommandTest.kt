@@ -0,0 +1,88 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.test
+
+import com.github.jonathanxd.kwcommands.dsl.*
+import com.github.jonathanxd.kwcommands.manager.CommandManagerImpl
+import com.github.jonathanxd.kwcommands.parser.CommandParserImpl
+import com.github.jonathanxd.kwcommands.parser.ParserOptions
+import org.junit.Assert
+import org.junit.Test
+
+class CompiledCommandTest {
+
+    @Test
+    fun test() {
+        val cmd = command {
+            name { "example" }
+            arguments {
+                staticListArguments {
+                    +stringArg {
+                        name { "directory" }
+                        alias {
+                            +"dir"
+                        }
+                    }
+                    +intArg {
+                        name { "depth" }
+                        optional { true }
+                    }
+                    +booleanArg {
+                        name { "recursive" }
+                        optional { true }
+                    }
+                }
+            }
+        }
+
+        val manager = CommandManagerImpl()
+        val parser = CommandParserImpl(manager)
+        parser.options.set(ParserOptions.COMPILED_COMMANDS, true)
+
+        manager.registerCommand(cmd, this)
+
+        repeat(2) {
+            val named = parser.parse("example --recursive --dir mydir", this)
+
+            Assert.assertTrue(named.isRight)
+            val namedArgs = named.right.single().arguments
+            Assert.assertEquals("mydir", namedArgs.single { it.argument.name == "directory" }.value)
+            Assert.assertEquals(true, namedArgs.single { it.argument.name == "recursive" }.value)
+            Assert.assertTrue(namedArgs.none { it.argument.name == "depth" && it.isDefined })
+
+            val positional = parser.parse("example mydir 5", this)
+
+            Assert.assertTrue(positional.isRight)
+            Assert.assertEquals(listOf("mydir", 5), positional.right.single().arguments
+                .filter { it.isDefined }
+                .map { it.value })
+
+            Assert.assertTrue(parser.parse("example --depth 5", this).isLeft)
+        }
+    }
+}
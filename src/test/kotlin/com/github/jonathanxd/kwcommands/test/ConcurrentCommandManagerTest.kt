@@ -0,0 +1,118 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.test
+
+import com.github.jonathanxd.kwcommands.dsl.command
+import com.github.jonathanxd.kwcommands.manager.ConcurrentCommandManager
+import com.github.jonathanxd.kwcommands.parser.CommandParserImpl
+import org.junit.Assert
+import org.junit.Test
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class ConcurrentCommandManagerTest {
+
+    @Test
+    fun test() {
+        val manager = ConcurrentCommandManager()
+        val executor = Executors.newFixedThreadPool(4)
+
+        val registrations = (0 until 100).map { n ->
+            executor.submit {
+                val cmd = command {
+                    name { "cmd$n" }
+                }
+
+                manager.registerCommand(cmd, this)
+                manager.registerCommand(command {
+                    parent = cmd
+                    name { "sub" }
+                }, this)
+            }
+        }
+
+        val reads = (0 until 100).map {
+            executor.submit {
+                manager.registeredCommands.forEach { cmd ->
+                    Assert.assertTrue(manager.isRegistered(cmd, null))
+                    Assert.assertEquals(cmd, manager.getCommand(cmd.name, null, null))
+                }
+            }
+        }
+
+        (registrations + reads).forEach { it.get() }
+        executor.shutdown()
+        executor.awaitTermination(10, TimeUnit.SECONDS)
+
+        Assert.assertEquals(100, manager.registeredCommands.size)
+        Assert.assertNotNull(manager.getCommand("cmd42", null, null))
+        Assert.assertNotNull(manager.getOptionalCommand(arrayOf("cmd42", "sub"), null, null))
+        Assert.assertNotNull(manager.findCommand("sub", null, null))
+
+        manager.unregisterAllCommandsOfOwner(this)
+
+        Assert.assertTrue(manager.registeredCommands.isEmpty())
+        Assert.assertNull(manager.getCommand("cmd42", null, null))
+    }
+
+    @Test
+    fun reload() {
+        val manager = ConcurrentCommandManager()
+        val parser = CommandParserImpl(manager)
+
+        manager.registerCommand(command {
+            name { "old" }
+        }, this)
+
+        val old = manager.snapshot()
+
+        manager.reload(this) {
+            val cmd = command {
+                name { "new" }
+            }
+
+            it.registerCommand(cmd, this)
+            it.registerCommand(command {
+                parent = cmd
+                name { "sub" }
+            }, this)
+        }
+
+        Assert.assertNotNull(old.getCommand("old", null, null))
+        Assert.assertNull(old.getCommand("new", null, null))
+        Assert.assertNull(manager.getCommand("old", null, null))
+        Assert.assertTrue(parser.parse("new sub", null).isRight)
+        Assert.assertTrue(parser.parse("old", null).isLeft)
+
+        val oldParser = parser.withCommandManager(old)
+
+        Assert.assertSame(old, oldParser.commandManager)
+        Assert.assertTrue(oldParser.parse("old", null).isRight)
+        Assert.assertTrue(oldParser.parse("new", null).isLeft)
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.test
+
+import com.github.jonathanxd.iutils.kt.typeInfo
+import com.github.jonathanxd.iutils.type.TypeInfo
+import com.github.jonathanxd.kwcommands.dsl.command
+import com.github.jonathanxd.kwcommands.information.*
+import com.github.jonathanxd.kwcommands.manager.CommandManagerImpl
+import com.github.jonathanxd.kwcommands.processor.Processors
+import com.github.jonathanxd.kwcommands.processor.ValueResult
+import org.junit.Assert
+import org.junit.Test
+
+class InformationProvidersTest {
+
+    @Test
+    fun test() {
+        val providers = InformationProvidersImpl()
+        val nameId = Information.Id(typeInfo<String>(), arrayOf("name"))
+        val otherId = Information.Id(typeInfo<String>(), arrayOf("other"))
+        val numberId = Information.Id(typeInfo<Int>(), arrayOf("number"))
+
+        providers.registerInformation(nameId, "kw")
+        providers.registerInformation(numberId, 9)
+
+        Assert.assertEquals("kw", providers.find(nameId)?.value)
+        Assert.assertEquals("kw", providers.find(typeInfo<String>(), emptyArray())?.value)
+        Assert.assertEquals(9, providers.find(typeInfo<Any>(), arrayOf("number"))?.value)
+        Assert.assertNull(providers.find(otherId))
+
+        providers.registerInformation(otherId, "other")
+
+        Assert.assertEquals("other", providers.find(otherId)?.value)
+
+        providers.unregisterInformation(nameId)
+
+        Assert.assertNull(providers.find(nameId))
+        Assert.assertEquals("other", providers.find(typeInfo<String>(), emptyArray())?.value)
+        Assert.assertEquals("other", providers.copy().find(otherId)?.value)
+    }
+
+    @Test
+    fun unregisterAllValues() {
+        val providers = InformationProvidersImpl()
+        val nameId = Information.Id(typeInfo<String>(), arrayOf("name"))
+
+        providers.registerInformation(nameId, "first")
+        providers.registerInformation(nameId, "second")
+
+        Assert.assertTrue(providers.unregisterInformation(nameId))
+        Assert.assertNull(providers.find(nameId))
+        Assert.assertTrue(providers.informationSet.none { it.id == nameId })
+        Assert.assertFalse(providers.unregisterInformation(nameId))
+    }
+
+    @Test
+    fun copy() {
+        val providers = InformationProvidersImpl()
+        val ids = (0 until 1000).map { Information.Id(typeInfo<Int>(), arrayOf("n$it")) }
+
+        ids.forEachIndexed { index, id -> providers.registerInformation(id, index) }
+
+        val copy = providers.copy()
+
+        Assert.assertEquals(providers.informationSet.size, copy.informationSet.size)
+        Assert.assertSame(copy, copy.find(INFORMATION_PROVIDERS_ID)?.value)
+        ids.forEachIndexed { index, id -> Assert.assertEquals(index, copy.find(id)?.value) }
+
+        copy.unregisterInformation(ids.first())
+
+        Assert.assertNull(copy.find(ids.first()))
+        Assert.assertEquals(0, providers.find(ids.first())?.value)
+    }
+
+    @Test
+    fun child() {
+        val providers = InformationProvidersImpl()
+        val nameId = Information.Id(typeInfo<String>(), arrayOf("name"))
+        val numberId = Information.Id(typeInfo<Int>(), arrayOf("number"))
+
+        providers.registerInformation(nameId, "kw")
+        providers.registerInformation(numberId, 9)
+
+        val child = providers.child()
+
+        child.registerInformation(nameId, "child")
+
+        Assert.assertEquals("child", child.find(nameId)?.value)
+        Assert.assertEquals(9, child.find(numberId)?.value)
+        Assert.assertEquals("kw", providers.find(nameId)?.value)
+        Assert.assertSame(child, child.find(INFORMATION_PROVIDERS_ID)?.value)
+
+        child.unregisterInformation(nameId)
+
+        Assert.assertEquals("kw", child.find(nameId)?.value)
+    }
+
+    @Test
+    fun memoized() {
+        val providers = InformationProvidersImpl()
+        val nameId = Information.Id(typeInfo<String>(), arrayOf("name"))
+        val missingId = Information.Id(typeInfo<String>(), arrayOf("missing"))
+        var calls = 0
+
+        providers.registerInformationProvider(object : InformationProvider {
+            @Suppress("UNCHECKED_CAST")
+            override fun <T> provide(
+                type: TypeInfo<out T>,
+                tags: Array<out String>,
+                providers: InformationProviders
+            ): Information<T>? {
+                ++calls
+                return if (tags.contentEquals(nameId.tags)) Information(nameId, "provided", null) as Information<T>
+                else null
+            }
+        })
+
+        val memoized = MemoizedInformationProviders(providers)
+
+        repeat(3) {
+            Assert.assertEquals("provided", memoized.find(nameId)?.value)
+            Assert.assertNull(memoized.find(missingId))
+        }
+
+        Assert.assertEquals(2, calls)
+
+        memoized.registerInformation(missingId, "registered")
+
+        Assert.assertEquals("registered", memoized.find(missingId)?.value)
+    }
+
+    @Test
+    fun dynamicProviderAcrossChain() {
+        val manager = CommandManagerImpl()
+        val processor = Processors.createCommonProcessor(manager)
+        val levelId = Information.Id(typeInfo<Int>(), arrayOf("level"))
+        var level = 1
+
+        val providers = InformationProvidersImpl()
+
+        providers.registerInformationProvider(object : InformationProvider {
+            @Suppress("UNCHECKED_CAST")
+            override fun <T> provide(
+                type: TypeInfo<out T>,
+                tags: Array<out String>,
+                providers: InformationProviders
+            ): Information<T>? =
+                if (tags.contentEquals(levelId.tags)) Information(levelId, level, null) as Information<T>
+                else null
+        })
+
+        manager.registerCommand(command {
+            name { "level" }
+            handlerWithContext { it.getInfo(levelId).value }
+        }, this)
+
+        manager.registerCommand(command {
+            name { "up" }
+            handlerWithContext { ++level }
+        }, this)
+
+        val results = processor.parseAndDispatch("level & up & level", this, providers).right
+
+        Assert.assertEquals(listOf(1, 2, 2), results.map { (it as ValueResult).value })
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.test
+
+import com.github.jonathanxd.kwcommands.command.CommandMetadata
+import com.github.jonathanxd.kwcommands.dsl.command
+import com.github.jonathanxd.kwcommands.dsl.intArg
+import com.github.jonathanxd.kwcommands.manager.CommandManagerImpl
+import com.github.jonathanxd.kwcommands.parser.ParseCache
+import com.github.jonathanxd.kwcommands.parser.ParserOptions
+import com.github.jonathanxd.kwcommands.processor.Processors
+import org.junit.Assert
+import org.junit.Test
+
+class ParseCacheTest {
+
+    @Test
+    fun test() {
+        val manager = CommandManagerImpl()
+        val processor = Processors.createCommonProcessor(manager)
+        val cache = ParseCache(2)
+
+        processor.parser.options.set(ParserOptions.PARSE_CACHE, cache)
+
+        manager.registerCommand(command {
+            name { "warp" }
+            arguments {
+                staticListArguments {
+                    +intArg {
+                        name { "n" }
+                    }
+                }
+            }
+        }, this)
+
+        manager.registerCommand(command {
+            name { "now" }
+            metadata {
+                put(CommandMetadata.NO_PARSE_CACHE, true)
+            }
+        }, this)
+
+        val first = processor.parse("warp 1", this).right
+
+        Assert.assertSame(first, processor.parse("warp 1", this).right)
+        Assert.assertEquals(1L, cache.stats.hits)
+        Assert.assertEquals(1L, cache.stats.misses)
+
+        processor.parse("now", this)
+        processor.parse("now", this)
+
+        Assert.assertEquals(1L, cache.stats.hits)
+        Assert.assertEquals(1, cache.stats.size)
+
+        processor.parse("warp 2", this)
+        processor.parse("warp 3", this)
+
+        Assert.assertEquals(1L, cache.stats.evictions)
+        Assert.assertEquals(2, cache.stats.size)
+
+        manager.registerCommand(command {
+            name { "kit" }
+        }, this)
+
+        Assert.assertNotSame(first, processor.parse("warp 1", this).right)
+        Assert.assertEquals(1L, cache.stats.invalidations)
+        Assert.assertEquals(1, cache.stats.size)
+    }
+
+}
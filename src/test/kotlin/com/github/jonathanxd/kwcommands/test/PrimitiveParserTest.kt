@@ -0,0 +1,62 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.test
+
+import com.github.jonathanxd.kwcommands.parser.SingleInput
+import com.github.jonathanxd.kwcommands.util.intArgumentType
+import com.github.jonathanxd.kwcommands.util.isDecimal
+import com.github.jonathanxd.kwcommands.util.longArgumentType
+import com.github.jonathanxd.kwcommands.util.parseDecimal
+import org.junit.Assert
+import org.junit.Test
+
+class PrimitiveParserTest {
+
+    @Test
+    fun test() {
+        listOf("0", "10", "-10", "+7", "2147483647", "-2147483648", "2147483648", "-", "+", "", "1a", "a1", "--1")
+            .forEach {
+                val source = "cmd $it"
+                val input = SingleInput.of(source, 4, source.length - 1)
+
+                Assert.assertEquals(it, it.toIntOrNull() != null,
+                    input.isDecimal(Int.MIN_VALUE.toLong(), Int.MAX_VALUE.toLong()))
+                Assert.assertEquals(it, it.toLongOrNull() != null, input.isDecimal(Long.MIN_VALUE, Long.MAX_VALUE))
+
+                if (it.toLongOrNull() != null)
+                    Assert.assertEquals(it.toLong(), input.parseDecimal())
+            }
+
+        Assert.assertTrue(SingleInput(Long.MIN_VALUE.toString()).isDecimal(Long.MIN_VALUE, Long.MAX_VALUE))
+        Assert.assertEquals(Long.MIN_VALUE, SingleInput(Long.MIN_VALUE.toString()).parseDecimal())
+        Assert.assertFalse(SingleInput("9223372036854775808").isDecimal(Long.MIN_VALUE, Long.MAX_VALUE))
+        Assert.assertEquals(Long.MIN_VALUE, longArgumentType.parse(SingleInput(Long.MIN_VALUE.toString())).value)
+        Assert.assertEquals(10, intArgumentType.parse(SingleInput("10")).value)
+        Assert.assertTrue(intArgumentType.parse(SingleInput("x")).isInvalid)
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.test
+
+import com.github.jonathanxd.iutils.kt.typeInfo
+import com.github.jonathanxd.kwcommands.command.Command
+import com.github.jonathanxd.kwcommands.command.CommandContainer
+import com.github.jonathanxd.kwcommands.information.Information
+import com.github.jonathanxd.kwcommands.information.InformationProvidersImpl
+import com.github.jonathanxd.kwcommands.requirement.*
+import org.junit.Assert
+import org.junit.Test
+
+class RequirementProgramTest {
+
+    @Test
+    fun test() {
+        var tests = 0
+        val tester = object : RequirementTester<Int, Int> {
+            override fun test(requirement: Requirement<Int, Int>, value: Int): Boolean {
+                ++tests
+                return value >= requirement.required
+            }
+        }
+
+        val levelId = Information.Id(typeInfo<Int>(), arrayOf("level"))
+        val missingId = Information.Id(typeInfo<Int>(), arrayOf("missing"))
+        val requirements = listOf(
+            Requirement.create(5, levelId, tester),
+            Requirement.create(20, levelId, tester),
+            Requirement.create(1, missingId, tester)
+        )
+
+        val command = Command.builder().name("level").addRequirements(requirements).build()
+        val container = CommandContainer(command, emptyList(), null)
+        val providers = InformationProvidersImpl()
+
+        providers.registerInformation(levelId, 10)
+
+        val program = command.requirementProgram
+        val cache = RequirementTestCache()
+
+        Assert.assertEquals(
+            listOf(Reason.UNSATISFIED_REQUIREMENT, Reason.MISSING_INFORMATION),
+            program.failures(container, providers, cache).map { it.reason }
+        )
+        Assert.assertEquals(20, program.firstFailure(container, providers, cache)?.requirement?.required)
+        Assert.assertEquals(2, tests)
+        Assert.assertTrue(RequirementProgram.compile(emptyList()).isEmpty)
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.test
+
+import com.github.jonathanxd.kwcommands.dispatch.ResultSink
+import com.github.jonathanxd.kwcommands.dsl.command
+import com.github.jonathanxd.kwcommands.information.InformationProvidersVoid
+import com.github.jonathanxd.kwcommands.manager.CommandManagerImpl
+import com.github.jonathanxd.kwcommands.processor.CommandResult
+import com.github.jonathanxd.kwcommands.processor.Processors
+import com.github.jonathanxd.kwcommands.processor.ValueResult
+import org.junit.Assert
+import org.junit.Test
+
+class ResultSinkTest {
+
+    @Test
+    fun test() {
+        val manager = CommandManagerImpl()
+        val processor = Processors.createCommonProcessor(manager)
+        var calls = 0
+
+        manager.registerCommand(command {
+            name { "hello" }
+            handlerWithContext {
+                ++calls
+                "world"
+            }
+        }, this)
+
+        val commands = processor.parser.parse("hello & hello", this).right
+        val received = mutableListOf<CommandResult>()
+
+        processor.dispatcher.dispatch(commands, InformationProvidersVoid, object : ResultSink {
+            override fun accept(result: CommandResult) {
+                received += result
+            }
+        })
+
+        Assert.assertEquals(listOf("world", "world"), received.map { (it as ValueResult).value })
+        Assert.assertEquals(processor.dispatcher.dispatch(commands, InformationProvidersVoid), received)
+
+        processor.dispatcher.dispatch(commands, InformationProvidersVoid, ResultSink.VOID)
+
+        Assert.assertEquals(6, calls)
+    }
+
+}
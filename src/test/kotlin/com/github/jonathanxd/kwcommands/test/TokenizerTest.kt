@@ -0,0 +1,105 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.test
+
+import com.github.jonathanxd.kwcommands.parser.SingleInput
+import com.github.jonathanxd.kwcommands.util.InputTokenizer
+import com.github.jonathanxd.kwcommands.util.parseSingleInput
+import com.github.jonathanxd.kwcommands.util.sourcedCharIterator
+import org.junit.Assert
+import org.junit.Test
+
+class TokenizerTest {
+
+    @Test
+    fun test() {
+        listOf(
+            "register --name KWCommands --version 1.6",
+            "a  b   c ",
+            "say \"hello world\" 'x' \\\"y",
+            "set --map {a=b, c=[d, e]} --list [x,y] & list",
+            "--name=KWCommands -abc"
+        ).forEach { input ->
+            val expected = input.sourcedCharIterator()
+            val iter = input.sourcedCharIterator()
+
+            while (expected.hasNext()) {
+                val expectedInput = expected.parseSingleInput(parseData = true)
+                val actual = InputTokenizer.DEFAULT.tokenize(iter, parseData = true)
+
+                Assert.assertEquals(expectedInput.isRight, actual.isRight)
+
+                if (actual.isRight)
+                    Assert.assertEquals(expectedInput.right, actual.right)
+
+                Assert.assertEquals(expected.pos, iter.pos)
+            }
+
+            Assert.assertFalse(iter.hasNext())
+        }
+    }
+
+    @Test
+    fun reusedToken() {
+        val input = "say \"hello world\" {a=b} x"
+        val expected = input.sourcedCharIterator()
+        val iter = input.sourcedCharIterator()
+        val token = InputTokenizer.Token()
+
+        while (expected.hasNext()) {
+            val expectedInput = InputTokenizer.DEFAULT.tokenize(expected, parseData = true)
+
+            Assert.assertEquals(expectedInput.isRight, InputTokenizer.DEFAULT.tokenize(iter, true, token))
+
+            if (expectedInput.isRight)
+                Assert.assertEquals(expectedInput.right, token.input)
+            else
+                Assert.assertNull(token.input)
+        }
+
+        Assert.assertFalse(iter.hasNext())
+    }
+
+    @Test
+    fun regionInput() {
+        val source = "set --value 10"
+        val region = SingleInput.of(source, 4, 10)
+        val eager = SingleInput("--value", source, 4, 10)
+
+        Assert.assertTrue(region.inputEquals("--value"))
+        Assert.assertTrue(region.inputEquals("--VALUE", ignoreCase = true))
+        Assert.assertTrue(region.inputStartsWith("--"))
+        Assert.assertFalse(region.inputEquals("--valu"))
+        Assert.assertEquals(7, region.inputLength)
+        Assert.assertEquals('v', region.inputCharAt(2))
+        Assert.assertEquals(eager.hashCode(), region.hashCode())
+        Assert.assertEquals(eager, region)
+        Assert.assertEquals("--value", region.input)
+        Assert.assertEquals("--value", region.content)
+    }
+}
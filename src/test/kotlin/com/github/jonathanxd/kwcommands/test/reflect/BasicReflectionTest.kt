@@ -27,13 +27,16 @@
  */
 package com.github.jonathanxd.kwcommands.test.reflect
 
+import com.github.jonathanxd.kwcommands.manager.CommandManagerImpl
 import com.github.jonathanxd.kwcommands.manager.instanceProvider
 import com.github.jonathanxd.kwcommands.processor.Processors
 import com.github.jonathanxd.kwcommands.reflect.annotation.Arg
 import com.github.jonathanxd.kwcommands.reflect.annotation.Cmd
 import com.github.jonathanxd.kwcommands.reflect.annotation.Exclude
 import com.github.jonathanxd.kwcommands.reflect.env.ReflectionEnvironment
+import org.junit.Assert
 import org.junit.Test
+import java.util.concurrent.ForkJoinPool
 
 class BasicReflectionTest {
 
@@ -50,6 +53,24 @@ class BasicReflectionTest {
         processor.parseAndDispatch("gun shoot", this)
     }
 
+    @Test
+    fun fromClasses() {
+        val classes = listOf(Gun::class.java, Download::class.java)
+        val provider = instanceProvider { it.newInstance() }
+
+        val sequential = ReflectionEnvironment(CommandManagerImpl()).let { reflect ->
+            classes.flatMap { reflect.fromClass(it, provider, this) }
+        }
+
+        val parallel = ReflectionEnvironment(CommandManagerImpl())
+            .fromClasses(classes, provider, this, true, ForkJoinPool.commonPool())
+
+        Assert.assertEquals(
+            sequential.map { it.fullname to it.arguments.all.map { arg -> arg.name } },
+            parallel.map { it.fullname to it.arguments.all.map { arg -> arg.name } }
+        )
+    }
+
 }
 
 @Cmd(description = "A gun")
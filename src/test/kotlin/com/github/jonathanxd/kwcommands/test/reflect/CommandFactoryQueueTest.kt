@@ -0,0 +1,111 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.test.reflect
+
+import com.github.jonathanxd.kwcommands.command.Command
+import com.github.jonathanxd.kwcommands.manager.CommandManagerImpl
+import com.github.jonathanxd.kwcommands.reflect.CommandFactoryQueue
+import com.github.jonathanxd.kwcommands.reflect.annotation.Cmd
+import com.github.jonathanxd.kwcommands.reflect.env.Checker
+import org.junit.Assert
+import org.junit.Test
+
+class CommandFactoryQueueTest {
+
+    @Test
+    fun test() {
+        val manager = CommandManagerImpl()
+        val queue = CommandFactoryQueue()
+
+        queue.queue(manager, QueueLeaf::class.java)
+        queue.queue(manager, QueueMid::class.java)
+        queue.queue(manager, QueueOther::class.java)
+        queue.queue(manager, QueueRoot::class.java)
+
+        Assert.assertEquals(
+            listOf("root", "root mid", "root mid leaf", "root other"),
+            queue.commands.map { it.fullname }
+        )
+    }
+
+    @Test
+    fun missing() {
+        val manager = CommandManagerImpl()
+        val queue = CommandFactoryQueue()
+
+        queue.queue(manager, QueueLeaf::class.java)
+        queue.queue(manager, QueueOrphan::class.java)
+
+        val message = try {
+            queue.commands
+            null
+        } catch (e: IllegalStateException) {
+            e.message
+        }
+
+        Assert.assertNotNull(message)
+        Assert.assertTrue(message!!.contains("'root mid'"))
+        Assert.assertTrue(message.contains("'missing'"))
+    }
+
+    private fun CommandFactoryQueue.queue(manager: CommandManagerImpl, klass: Class<*>) {
+        val cmd = klass.getDeclaredAnnotation(Cmd::class.java)
+
+        this.queueCommand(
+            klass,
+            cmd.name,
+            { created ->
+                Command.builder().name(cmd.name).parent(created.find(cmd.parents)).build().also {
+                    it.parent?.addSubCommand(it)
+                }
+            },
+            Checker(manager, null, cmd, klass),
+            { (cmd.parents + cmd.name).joinToString(separator = " ") }
+        )
+    }
+
+    private fun List<Command>.find(path: Array<String>): Command? =
+        if (path.isEmpty()) null
+        else this.firstOrNull { it.fullname == path.joinToString(separator = " ") }
+
+}
+
+@Cmd(name = "root")
+class QueueRoot
+
+@Cmd(name = "mid", parents = ["root"])
+class QueueMid
+
+@Cmd(name = "other", parents = ["root"])
+class QueueOther
+
+@Cmd(name = "leaf", parents = ["root", "mid"])
+class QueueLeaf
+
+@Cmd(name = "orphan", parents = ["missing"])
+class QueueOrphan
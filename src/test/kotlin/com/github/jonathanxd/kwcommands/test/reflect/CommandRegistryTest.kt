@@ -0,0 +1,107 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.test.reflect
+
+import com.github.jonathanxd.kwcommands.command.Command
+import com.github.jonathanxd.kwcommands.manager.CommandManagerImpl
+import com.github.jonathanxd.kwcommands.manager.instanceProvider
+import com.github.jonathanxd.kwcommands.processor.Processors
+import com.github.jonathanxd.kwcommands.processor.ValueResult
+import com.github.jonathanxd.kwcommands.reflect.env.ReflectionEnvironment
+import com.github.jonathanxd.kwcommands.test.RegistryCommands
+import org.junit.Assert
+import org.junit.Test
+
+class CommandRegistryTest {
+
+    private val provider = instanceProvider { it.newInstance() }
+
+    @Test
+    fun registryMatchesReflection() {
+        val reflect = ReflectionEnvironment(CommandManagerImpl())
+            .fromClass(RegistryCommands::class.java, this.provider, this)
+
+        val registry = ReflectionEnvironment(CommandManagerImpl())
+            .fromRegistries(this.javaClass.classLoader, this.provider, this)
+
+        Assert.assertEquals(6, reflect.size)
+        Assert.assertEquals(describe(reflect), describe(registry))
+    }
+
+    @Test
+    fun registryDispatch() {
+        val reflect = dispatch { it.fromClass(RegistryCommands::class.java, this.provider, this) }
+        val registry = dispatch { it.fromRegistries(this.javaClass.classLoader, this.provider, this) }
+
+        Assert.assertEquals(listOf(3, "hello!", "context", "hi"), reflect)
+        Assert.assertEquals(reflect, registry)
+    }
+
+    private fun dispatch(commands: (ReflectionEnvironment) -> List<Command>): List<Any?> {
+        val processor = Processors.createCommonProcessor()
+        val environment = ReflectionEnvironment(processor.parser.commandManager)
+
+        environment.registerCommands(commands(environment), this)
+
+        return listOf("registry sum 1 2", "registry say hello !", "registry context", "registry nested echo hi")
+            .map {
+                val result = processor.parseAndDispatch(it, this)
+
+                Assert.assertTrue(result.isRight)
+                (result.right.last() as ValueResult).value
+            }
+    }
+
+    private fun describe(commands: List<Command>): List<Any?> =
+        commands.sortedBy { it.fullname }.map { command ->
+            listOf(
+                command.fullname,
+                command.order,
+                command.nameComponent,
+                command.alias,
+                command.aliasComponent,
+                command.description,
+                command.isOrderIndependent,
+                command.parent?.fullname,
+                command.subCommands.map { it.name }.sorted(),
+                command.requiredInfo,
+                command.arguments.all.map {
+                    listOf(
+                        it.name,
+                        it.nameComponent,
+                        it.alias,
+                        it.description,
+                        it.isOptional,
+                        it.argumentType.type,
+                        it.requiredInfo
+                    )
+                }
+            )
+        }
+
+}
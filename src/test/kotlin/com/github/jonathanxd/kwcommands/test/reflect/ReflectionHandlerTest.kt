@@ -0,0 +1,113 @@
+/*
+ *      KWCommands - New generation of WCommands written in Kotlin <https://github.com/JonathanxD/KWCommands>
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2020 JonathanxD
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.jonathanxd.kwcommands.test.reflect
+
+import com.github.jonathanxd.iutils.kt.typeInfo
+import com.github.jonathanxd.iutils.link.Invokables
+import com.github.jonathanxd.kwcommands.argument.ArgumentContainer
+import com.github.jonathanxd.kwcommands.command.Command
+import com.github.jonathanxd.kwcommands.command.CommandContainer
+import com.github.jonathanxd.kwcommands.dsl.stringArg
+import com.github.jonathanxd.kwcommands.information.InformationProvidersVoid
+import com.github.jonathanxd.kwcommands.processor.ResultHandler
+import com.github.jonathanxd.kwcommands.reflect.ReflectionHandler
+import com.github.jonathanxd.kwcommands.reflect.element.ElementParameter
+import com.github.jonathanxd.kwcommands.reflect.element.MethodElement
+import com.github.jonathanxd.kwcommands.util.MissingInformation
+import org.junit.Assert
+import org.junit.Test
+import java.io.IOException
+import java.lang.invoke.MethodHandles
+
+class ReflectionHandlerTest {
+
+    private val name = stringArg { name { "name" } }
+
+    @Test
+    fun duplicatedArgumentNames() {
+        val method = Handlers::class.java.getMethod("join", String::class.java, String::class.java)
+        val handler = ReflectionHandler(MethodElement(method, Handlers(), listOf(
+            ElementParameter.ArgumentParameter(this.name, typeInfo<String>()),
+            ElementParameter.ArgumentParameter(this.name, typeInfo<String>())
+        ), Handlers::class.java))
+
+        val container = CommandContainer(
+            Command.builder().name("join").build(),
+            listOf(ArgumentContainer(this.name, null, "kw", null)),
+            handler
+        )
+
+        Assert.assertEquals("kw kw", handler.handle(container, InformationProvidersVoid, NoResultHandler))
+    }
+
+    @Test
+    fun checkedExceptionsWrappedAsLink() {
+        val method = Handlers::class.java.getMethod("fail")
+        val instance = Handlers()
+        val handler = ReflectionHandler(MethodElement(method, instance, emptyList(), Handlers::class.java))
+        val container = CommandContainer(Command.builder().name("fail").build(), emptyList(), handler)
+
+        val expected = try {
+            Invokables.fromMethodHandle<Any?>(MethodHandles.lookup().unreflect(method).bindTo(instance)).invoke()
+            null
+        } catch (t: Throwable) {
+            t
+        }
+
+        val thrown = try {
+            handler.handle(container, InformationProvidersVoid, NoResultHandler)
+            null
+        } catch (t: Throwable) {
+            t
+        }
+
+        Assert.assertNotNull(thrown)
+        Assert.assertEquals(expected?.javaClass, thrown?.javaClass)
+    }
+
+    class Handlers {
+        fun join(first: String, second: String): String = "$first $second"
+
+        @Throws(IOException::class)
+        fun fail(): Unit = throw IOException("fail")
+    }
+
+    private object NoResultHandler : ResultHandler {
+        override fun informationMissing(
+            missingInformationList: List<MissingInformation>,
+            requester: Any,
+            cancel: Boolean
+        ) {
+        }
+
+        override fun result(value: Any?) {
+        }
+
+        override fun shouldCancel(): Boolean = false
+    }
+}